@@ -0,0 +1,81 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reads of the attachment of an article, stored in a single record or in chunks, through the whole content or the stream.
+ */
+@State(Scope.Thread)
+public class BlobBenchmark extends OrientJdbcBenchmark {
+
+  @Param({ "1", "2" })
+  public int                article;
+
+  private PreparedStatement select;
+  private final byte[]      buffer = new byte[8192];
+
+  @Setup(Level.Trial)
+  public void prepareStatement() throws SQLException {
+    select = conn.prepareStatement("SELECT FROM Article WHERE uuid = ?");
+  }
+
+  @TearDown(Level.Trial)
+  public void closeStatement() throws SQLException {
+    select.close();
+  }
+
+  @Benchmark
+  public byte[] getBytes() throws SQLException {
+    final Blob blob = getBlob();
+    return blob.getBytes(1, (int) blob.length());
+  }
+
+  @Benchmark
+  public long readStream() throws SQLException, IOException {
+    final Blob blob = getBlob();
+    final InputStream stream = blob.getBinaryStream();
+    long total = 0;
+    int read;
+    while ((read = stream.read(buffer)) != -1)
+      total += read;
+    stream.close();
+    return total;
+  }
+
+  private Blob getBlob() throws SQLException {
+    select.setInt(1, article);
+    final ResultSet rs = select.executeQuery();
+    rs.next();
+    return rs.getBlob("attachment");
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Database metadata calls as done by tools and ORMs on connection, and result set metadata of a query.
+ */
+@State(Scope.Thread)
+public class MetaDataBenchmark extends OrientJdbcBenchmark {
+
+  @Benchmark
+  public void getTables(final Blackhole blackhole) throws SQLException {
+    consume(conn.getMetaData().getTables(null, null, "%", null), blackhole);
+  }
+
+  @Benchmark
+  public void getColumns(final Blackhole blackhole) throws SQLException {
+    consume(conn.getMetaData().getColumns(null, null, "Item", "%"), blackhole);
+  }
+
+  @Benchmark
+  public void getIndexInfo(final Blackhole blackhole) throws SQLException {
+    consume(conn.getMetaData().getIndexInfo(null, null, "Item", false, false), blackhole);
+  }
+
+  @Benchmark
+  public void getResultSetMetaData(final Blackhole blackhole) throws SQLException {
+    final Statement stmt = conn.createStatement();
+    try {
+      final ResultSet rs = stmt.executeQuery("SELECT FROM Item WHERE intKey = 1");
+      rs.next();
+      final ResultSetMetaData metaData = rs.getMetaData();
+      for (int i = 1; i <= metaData.getColumnCount(); i++) {
+        blackhole.consume(metaData.getColumnName(i));
+        blackhole.consume(metaData.getColumnType(i));
+      }
+    } finally {
+      stmt.close();
+    }
+  }
+
+  private static void consume(final ResultSet rs, final Blackhole blackhole) throws SQLException {
+    while (rs.next()) {
+      final int columns = rs.getMetaData().getColumnCount();
+      for (int i = 1; i <= columns; i++)
+        blackhole.consume(rs.getObject(i));
+    }
+    rs.close();
+  }
+}
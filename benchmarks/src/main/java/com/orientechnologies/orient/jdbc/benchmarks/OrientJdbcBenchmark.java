@@ -0,0 +1,184 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OClass.INDEX_TYPE;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ORecordBytes;
+import com.orientechnologies.orient.jdbc.OrientJdbcDriver;
+
+/**
+ * Base of the benchmarks: creates an embedded database seeded like the one of the driver tests, with <code>items</code> records
+ * of class Item and articles with a single record and a chunked attachment, and opens a JDBC connection on it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public abstract class OrientJdbcBenchmark {
+
+  static final int     ATTACHMENT_SIZE  = 64 * 1024;
+  static final int     ATTACHMENT_CHUNK = 4 * 1024;
+
+  @Param({ "memory" })
+  public String        storage;
+
+  @Param({ "1000" })
+  public int           items;
+
+  protected Connection conn;
+  private String       dbUrl;
+
+  @Setup(Level.Trial)
+  public void openConnection() throws Exception {
+    Class.forName(OrientJdbcDriver.class.getName());
+
+    dbUrl = "plocal".equals(storage) ? "plocal:./target/databases/benchmark" : storage + ":benchmark";
+    final ODatabaseDocumentTx db = new ODatabaseDocumentTx(dbUrl);
+    if (db.exists()) {
+      db.open("admin", "admin");
+      db.drop();
+    }
+    db.create();
+    try {
+      createSchema(db);
+      loadData(db, items);
+    } finally {
+      db.close();
+    }
+
+    final Properties info = new Properties();
+    info.put("user", "admin");
+    info.put("password", "admin");
+    conn = DriverManager.getConnection("jdbc:orient:" + dbUrl, info);
+  }
+
+  @TearDown(Level.Trial)
+  public void closeConnection() throws SQLException {
+    conn.close();
+
+    final ODatabaseDocumentTx db = new ODatabaseDocumentTx(dbUrl);
+    db.open("admin", "admin");
+    db.drop();
+  }
+
+  private static void createSchema(final ODatabaseDocumentTx db) {
+    final OSchema schema = db.getMetadata().getSchema();
+
+    final OClass item = schema.createClass("Item");
+    item.createProperty("stringKey", OType.STRING).createIndex(INDEX_TYPE.UNIQUE);
+    item.createProperty("intKey", OType.INTEGER).createIndex(INDEX_TYPE.UNIQUE);
+    item.createProperty("date", OType.DATE);
+    item.createProperty("time", OType.DATETIME);
+    item.createProperty("text", OType.STRING);
+    item.createProperty("length", OType.LONG);
+    item.createProperty("published", OType.BOOLEAN);
+    item.createProperty("title", OType.STRING);
+    item.createProperty("author", OType.STRING);
+    item.createProperty("score", OType.DOUBLE);
+
+    final OClass article = schema.createClass("Article");
+    article.createProperty("uuid", OType.INTEGER).createIndex(INDEX_TYPE.UNIQUE);
+    article.createProperty("date", OType.DATE);
+    article.createProperty("title", OType.STRING);
+    article.createProperty("content", OType.STRING);
+
+    schema.reload();
+  }
+
+  private static void loadData(final ODatabaseDocumentTx db, final int items) {
+    final Random random = new Random(42);
+
+    db.declareIntent(new OIntentMassiveInsert());
+    for (int i = 1; i <= items; i++) {
+      final Calendar instance = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+      instance.add(Calendar.HOUR_OF_DAY, -i);
+      final Date time = instance.getTime();
+
+      final ODocument doc = new ODocument("Item");
+      doc.field("stringKey", Integer.toString(i));
+      doc.field("intKey", i);
+      doc.field("text", "OrientDB is a deeply scalable Document-Graph DBMS " + i);
+      doc.field("title", "orientDB");
+      doc.field("length", (long) random.nextInt(10000));
+      doc.field("published", i % 2 > 0);
+      doc.field("author", "anAuthor" + i);
+      doc.field("score", random.nextDouble());
+      doc.field("date", time, OType.DATE);
+      doc.field("time", time, OType.DATETIME);
+      db.save(doc);
+    }
+
+    final byte[] attachment = new byte[ATTACHMENT_SIZE];
+    random.nextBytes(attachment);
+
+    // ARTICLE 1 HAS THE ATTACHMENT IN A SINGLE RECORD, ARTICLE 2 IN CHUNKS
+    final ODocument single = new ODocument("Article");
+    single.field("uuid", 1);
+    single.field("title", "single");
+    final ORecordBytes record = new ORecordBytes(attachment);
+    db.save(record);
+    single.field("attachment", record);
+    db.save(single);
+
+    final List<ORID> chunks = new ArrayList<ORID>();
+    for (int offset = 0; offset < attachment.length; offset += ATTACHMENT_CHUNK) {
+      final byte[] chunk = new byte[Math.min(ATTACHMENT_CHUNK, attachment.length - offset)];
+      System.arraycopy(attachment, offset, chunk, 0, chunk.length);
+      final ORecordBytes chunkRecord = new ORecordBytes(chunk);
+      db.save(chunkRecord);
+      chunks.add(chunkRecord.getIdentity());
+    }
+    final ODocument chunked = new ODocument("Article");
+    chunked.field("uuid", 2);
+    chunked.field("title", "chunked");
+    chunked.field("attachment", chunks);
+    db.save(chunked);
+    db.declareIntent(null);
+  }
+}
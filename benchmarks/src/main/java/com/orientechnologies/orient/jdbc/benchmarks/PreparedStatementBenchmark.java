@@ -0,0 +1,101 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc.benchmarks;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Binding of parameters and execution of prepared statements, including batches of inserts.
+ */
+@State(Scope.Thread)
+public class PreparedStatementBenchmark extends OrientJdbcBenchmark {
+
+  @Param({ "100" })
+  public int                batchSize;
+
+  private PreparedStatement select;
+  private PreparedStatement update;
+  private PreparedStatement insert;
+  private int               next;
+
+  @Setup(Level.Trial)
+  public void prepareStatements() throws SQLException {
+    select = conn.prepareStatement("SELECT FROM Item WHERE intKey = ?");
+    update = conn.prepareStatement("UPDATE Item SET length = ? WHERE intKey = ?");
+    insert = conn.prepareStatement("INSERT INTO Item (stringKey, intKey, text, published, score) VALUES (?, ?, ?, ?, ?)");
+  }
+
+  /**
+   * Deletes the items inserted by the batches of the previous iteration, so that every iteration inserts into a class of the same
+   * size.
+   */
+  @Setup(Level.Iteration)
+  public void deleteInsertedItems() throws SQLException {
+    final Statement delete = conn.createStatement();
+    delete.executeUpdate("DELETE FROM Item WHERE intKey > " + items);
+    delete.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void closeStatements() throws SQLException {
+    select.close();
+    update.close();
+    insert.close();
+  }
+
+  @Benchmark
+  public void bindAndSelect(final Blackhole blackhole) throws SQLException {
+    select.setInt(1, next++ % items + 1);
+    final ResultSet rs = select.executeQuery();
+    while (rs.next())
+      blackhole.consume(rs.getString("text"));
+  }
+
+  @Benchmark
+  public int bindAndUpdate() throws SQLException {
+    update.setLong(1, next++);
+    update.setInt(2, next % items + 1);
+    return update.executeUpdate();
+  }
+
+  @Benchmark
+  public int[] insertBatch() throws SQLException {
+    for (int i = 0; i < batchSize; i++) {
+      final int key = items + ++next;
+      insert.setString(1, "batch" + key);
+      insert.setInt(2, key);
+      insert.setString(3, "inserted by a batch");
+      insert.setBoolean(4, key % 2 == 0);
+      insert.setDouble(5, key / 3d);
+      insert.addBatch();
+    }
+    return insert.executeBatch();
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iteration of a result set of all the items, reading every row with one getter type at a time, by label or by index.
+ */
+@State(Scope.Thread)
+public class ResultSetBenchmark extends OrientJdbcBenchmark {
+
+  @Param({ "int", "long", "double", "boolean", "string", "date", "timestamp", "object" })
+  public String     getter;
+
+  @Param({ "false", "true" })
+  public boolean    byIndex;
+
+  private Statement stmt;
+
+  @Setup(Level.Trial)
+  public void createStatement() throws SQLException {
+    stmt = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+  }
+
+  @TearDown(Level.Trial)
+  public void closeStatement() throws SQLException {
+    stmt.close();
+  }
+
+  @Benchmark
+  public void iterate(final Blackhole blackhole) throws SQLException {
+    final ResultSet rs = stmt.executeQuery("SELECT intKey, length, score, published, text, date, time, author FROM Item");
+    final int column = byIndex ? rs.findColumn(label()) : 0;
+    while (rs.next())
+      read(rs, column, blackhole);
+    rs.close();
+  }
+
+  private void read(final ResultSet rs, final int column, final Blackhole blackhole) throws SQLException {
+    if ("int".equals(getter))
+      blackhole.consume(byIndex ? rs.getInt(column) : rs.getInt("intKey"));
+    else if ("long".equals(getter))
+      blackhole.consume(byIndex ? rs.getLong(column) : rs.getLong("length"));
+    else if ("double".equals(getter))
+      blackhole.consume(byIndex ? rs.getDouble(column) : rs.getDouble("score"));
+    else if ("boolean".equals(getter))
+      blackhole.consume(byIndex ? rs.getBoolean(column) : rs.getBoolean("published"));
+    else if ("string".equals(getter))
+      blackhole.consume(byIndex ? rs.getString(column) : rs.getString("text"));
+    else if ("date".equals(getter))
+      blackhole.consume(byIndex ? rs.getDate(column) : rs.getDate("date"));
+    else if ("timestamp".equals(getter))
+      blackhole.consume(byIndex ? rs.getTimestamp(column) : rs.getTimestamp("time"));
+    else
+      blackhole.consume(byIndex ? rs.getObject(column) : rs.getObject("author"));
+  }
+
+  private String label() {
+    if ("int".equals(getter))
+      return "intKey";
+    if ("long".equals(getter))
+      return "length";
+    if ("double".equals(getter))
+      return "score";
+    if ("boolean".equals(getter))
+      return "published";
+    if ("string".equals(getter))
+      return "text";
+    if ("date".equals(getter))
+      return "date";
+    if ("timestamp".equals(getter))
+      return "time";
+    return "author";
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Execution of plain statements: the cost of parsing and running the SQL on every call.
+ */
+@State(Scope.Thread)
+public class StatementBenchmark extends OrientJdbcBenchmark {
+
+  private int next;
+
+  @Benchmark
+  public boolean selectOne() throws SQLException {
+    final Statement stmt = conn.createStatement();
+    try {
+      return stmt.executeQuery("select 1").next();
+    } finally {
+      stmt.close();
+    }
+  }
+
+  @Benchmark
+  public void selectByKey(final Blackhole blackhole) throws SQLException {
+    final Statement stmt = conn.createStatement();
+    try {
+      final ResultSet rs = stmt.executeQuery("SELECT FROM Item WHERE intKey = " + (next++ % items + 1));
+      while (rs.next())
+        blackhole.consume(rs.getString("text"));
+    } finally {
+      stmt.close();
+    }
+  }
+
+  @Benchmark
+  public void selectAll(final Blackhole blackhole) throws SQLException {
+    final Statement stmt = conn.createStatement();
+    try {
+      final ResultSet rs = stmt.executeQuery("SELECT FROM Item");
+      while (rs.next())
+        blackhole.consume(rs.getInt("intKey"));
+    } finally {
+      stmt.close();
+    }
+  }
+
+  @Benchmark
+  public int update() throws SQLException {
+    final Statement stmt = conn.createStatement();
+    try {
+      return stmt.executeUpdate("UPDATE Item SET length = " + next++ + " WHERE intKey = " + (next % items + 1));
+    } finally {
+      stmt.close();
+    }
+  }
+}
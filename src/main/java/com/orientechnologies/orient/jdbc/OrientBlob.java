@@ -17,73 +17,128 @@
  */
 package com.orientechnologies.orient.jdbc;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.sql.Blob;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ORecordBytes;
 
 import static java.util.Arrays.asList;
 
 /**
+ * BLOB stored in one or more binary records. The chunks are loaded one at a time when a read reaches them, and only the last
+ * ones read are kept, so a BLOB never holds more than a few chunks in memory whatever its size. The sizes of the chunks are learnt
+ * while they are loaded in order: the length of the BLOB is known once all of them have been loaded.
+ * <p>
+ * Bytes are appended through {@link #setBinaryStream(long)} at the end of a BLOB created by the connection: each chunk is saved
+ * as a new binary record as soon as it is full, so the BLOB never buffers more than a chunk while it is written. A BLOB read from
+ * the database cannot be written, the chunks appended would not be linked by its document.
+ * <p>
+ * Once the bytes read reach a threshold, the chunks loaded from then on are also spilled to a temporary file, and read again
+ * from a memory mapping of the file instead of from the database. The file is deleted when the BLOB is freed, or at the latest when
+ * the connection that created the BLOB is closed.
+ *
  * @author Roberto Franchini (CELI Srl - franchini@celi.it)
  * @author Salvatore Piccione (TXT e-solutions SpA - salvo.picci@gmail.com)
  */
 public class OrientBlob implements Blob {
 
-  private final List<byte[]> binaryDataChunks;
+  private static final int           SPILL_MAP_SIZE    = 16 * 1024 * 1024;
+
+  private final OrientJdbcConnection connection;
+  private final ODatabaseDocumentTx  database;
+  private final List<OIdentifiable>  chunks;
+  private final Map<Integer, byte[]> cache;
+  private final int                  chunkSize;
+  private final long                 spillThreshold;
 
-  private long               length;
+  private long[]                     offsets;
 
-  private byte[]             currentChunk;
+  private int                        sizedChunks;
 
-  private int                currentChunkIndex;
+  private long                       length            = -1;
+
+  // CHUNKS SPILLED TO THE FILE, FROM THE FIRST ONE PAST THE THRESHOLD
+  private int                        firstSpilledChunk = -1;
+  private File                       spillFile;
+  private FileChannel                spillChannel;
+  private MappedByteBuffer           spillMap;
+  private long                       spillMapOffset;
 
   protected OrientBlob(ORecordBytes binaryDataChunk) throws IllegalArgumentException, NullPointerException {
     this(asList(binaryDataChunk));
   }
 
   protected OrientBlob(List<ORecordBytes> binaryDataChunks) throws IllegalArgumentException, NullPointerException {
-    this.binaryDataChunks = new ArrayList<byte[]>(binaryDataChunks.size());
-    for (ORecordBytes binaryDataChunk : binaryDataChunks) {
-      if (binaryDataChunk == null) {
-        throw new IllegalArgumentException("The binary data chunks list cannot hold null chunks");
-      } else if (binaryDataChunk.getSize() == 0) {
-        throw new IllegalArgumentException("The binary data chunks list cannot hold empty chunks");
-      } else {
+    this(null, binaryDataChunks, 1, 0, 0);
+  }
 
-        this.binaryDataChunks.add(binaryDataChunk.toStream());
-      }
+  /**
+   * Creates a BLOB over chunks that are loaded from the database only when they are read.
+   *
+   * @param iConnection
+   *          the connection to the database to load the chunks from, that frees the BLOB when it is closed
+   * @param iChunks
+   *          the binary records of the chunks, or their identities
+   * @param iCacheSize
+   *          the number of chunks kept in memory after they have been read
+   * @param iChunkSize
+   *          the size of the chunks appended to the BLOB, or 0 if the BLOB cannot be written
+   * @param iSpillThreshold
+   *          the number of bytes past which the chunks are spilled to a temporary file, or 0 to keep them in the database only
+   */
+  protected OrientBlob(final OrientJdbcConnection iConnection, final List<? extends OIdentifiable> iChunks, final int iCacheSize,
+      final int iChunkSize, final long iSpillThreshold) throws IllegalArgumentException {
+    connection = iConnection;
+    database = iConnection != null ? iConnection.getDatabase() : null;
+    chunks = new ArrayList<OIdentifiable>(iChunks);
+    for (OIdentifiable chunk : chunks) {
+      if (chunk == null)
+        throw new IllegalArgumentException("The binary data chunks list cannot hold null chunks");
+      if (database == null && !(chunk instanceof ORecordBytes))
+        throw new IllegalArgumentException("The binary data chunks must be loaded when no database is given");
     }
-    this.length = calculateLenght();
+    offsets = new long[chunks.size() + 1];
+    chunkSize = database != null ? iChunkSize : 0;
+    spillThreshold = iSpillThreshold;
+
+    cache = new ChunkCache(Math.max(1, iCacheSize));
   }
 
-  /*
-   * (non-Javadoc)
-   * 
-   * @see java.sql.Blob#length()
+  /**
+   * Returns the number of bytes of the BLOB. The size of a chunk is known only once the chunk has been loaded, so the first call
+   * loads all the chunks not read yet: a read that follows loads again the chunks that are no longer cached. To copy a whole BLOB,
+   * read its stream to the end rather than calling <code>getBytes(1, (int) length())</code>.
    */
   public long length() throws SQLException {
-    return this.length;
-  }
-
-  private long calculateLenght() {
-    long length = 0;
-    for (byte[] binaryDataChunk : binaryDataChunks) {
-      length += binaryDataChunk.length;
-    }
+    if (length < 0)
+      length = getSizeUpTo(Long.MAX_VALUE);
     return length;
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#getBytes(long, int)
    */
   public byte[] getBytes(long pos, int length) throws SQLException {
@@ -93,180 +148,585 @@ public class OrientBlob implements Blob {
       throw new SQLException("The number of the consecutive bytes in the BLOB value to "
           + "be extracted cannot be a negative number");
 
-    int relativeIndex = this.getRelativeIndex(pos);
-
-    ByteBuffer buffer = ByteBuffer.allocate(length);
-    int j;
-    for (j = 0; j < length; j++) {
-      if (relativeIndex == currentChunk.length) {
-        // go to the next chunk, if any...
-        currentChunkIndex++;
-        if (currentChunkIndex < binaryDataChunks.size()) {
-          // the next chunk exists so we update the relative index and
-          // the current chunk reference
-          relativeIndex = 0;
-          currentChunk = binaryDataChunks.get(currentChunkIndex);
-        } else
-          // exit from the loop: there are no more bytes to be read
-          break;
+    final long start = pos - 1;
+    final long end = Math.min(start + length, getSizeUpTo(start + length));
+    final byte[] bytes = new byte[(int) Math.max(0, end - start)];
+
+    long offset = start;
+    while (offset < end) {
+      final int index = findChunk(offset);
+      final byte[] chunk = getChunk(index);
+      final int from = (int) (offset - offsets[index]);
+      final int count = (int) Math.min(chunk.length - from, end - offset);
+      System.arraycopy(chunk, from, bytes, (int) (offset - start), count);
+      offset += count;
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns the number of bytes of the BLOB, loading the chunks not sized yet only until the size reaches the given one.
+   */
+  private long getSizeUpTo(final long size) throws SQLException {
+    while (sizedChunks < chunks.size() && offsets[sizedChunks] < size)
+      getChunk(sizedChunks);
+    final long known = offsets[sizedChunks];
+    return length >= 0 ? Math.min(length, known) : known;
+  }
+
+  /**
+   * Returns the index of the chunk holding a byte, starting from 0, or -1 when the byte is past the end of the BLOB.
+   */
+  private int findChunk(final long offset) throws SQLException {
+    if (offset >= getSizeUpTo(offset + 1))
+      return -1;
+
+    // THE LAST CHUNK STARTING AT OR BEFORE THE OFFSET, SKIPPING THE EMPTY ONES
+    int low = 0;
+    int high = sizedChunks - 1;
+    while (low < high) {
+      final int middle = (low + high + 1) >>> 1;
+      if (offsets[middle] <= offset)
+        low = middle;
+      else
+        high = middle - 1;
+    }
+    return low;
+  }
+
+  /**
+   * Returns the content of a chunk, loading it if it is not among the last chunks read.
+   */
+  private byte[] getChunk(final int index) throws SQLException {
+    byte[] chunk = cache.get(index);
+    if (chunk == null) {
+      chunk = loadChunk(index);
+      cache.put(index, chunk);
+    }
+    return chunk;
+  }
+
+  private byte[] loadChunk(final int index) throws SQLException {
+    if (firstSpilledChunk >= 0 && index >= firstSpilledChunk && index < sizedChunks)
+      try {
+        return readSpilledChunk(index);
+      } catch (IOException e) {
+        throw new SQLException("The chunk " + index + " of the BLOB cannot be read from " + spillFile, e);
       }
-      buffer.put(currentChunk[relativeIndex]);
-      relativeIndex++;
+
+    final OIdentifiable identifiable = chunks.get(index);
+    final byte[] chunk;
+    if (identifiable instanceof ORecordBytes)
+      chunk = ((ORecordBytes) identifiable).toStream();
+    else {
+      final ORID rid = identifiable.getIdentity();
+      final ORecord record;
+      try {
+        database.activateOnCurrentThread();
+        record = database.load(rid);
+        // THE CHUNK IS KEPT BY THE BLOB ONLY: THE LOCAL CACHE WOULD HOLD ALL OF THEM
+        database.getLocalCache().deleteRecord(rid);
+      } catch (ORecordNotFoundException e) {
+        throw new SQLException("The chunk " + rid + " of the BLOB cannot be loaded", e);
+      }
+      if (!(record instanceof ORecordBytes))
+        throw new SQLException("The chunk " + rid + " of the BLOB is not a binary record");
+      chunk = ((ORecordBytes) record).toStream();
     }
 
-    return buffer.array();
+    if (index == sizedChunks)
+      try {
+        addSizedChunk(chunk);
+      } catch (IOException e) {
+        throw new SQLException("The chunk " + index + " of the BLOB cannot be spilled to " + spillFile, e);
+      }
+    return chunk;
   }
 
   /**
-   * Calculates the index within a binary chunk corresponding to the given absolute position within this BLOB
-   * 
-   * @param pos
-   * @return
+   * Records the size of the next chunk in order, and spills it to the file if the bytes read reached the threshold.
    */
-  private int getRelativeIndex(long pos) {
-    int currentSize = 0;
-    currentChunkIndex = 0;
-
-    // loop until we find the chuks holding the given position
-    while (pos >= (currentSize += binaryDataChunks.get(currentChunkIndex).length))
-      currentChunkIndex++;
-
-    currentChunk = binaryDataChunks.get(currentChunkIndex);
-    currentSize -= currentChunk.length;
-    // the position referred to the target binary chunk
-    int relativePosition = (int) (pos - currentSize);
-    // the index of the first byte to be returned
-    return relativePosition - 1;
+  private void addSizedChunk(final byte[] chunk) throws IOException {
+    final int index = sizedChunks;
+    offsets[index + 1] = offsets[index] + chunk.length;
+    if (spillThreshold > 0 && offsets[index + 1] > spillThreshold) {
+      if (firstSpilledChunk < 0) {
+        spillFile = File.createTempFile("orientdb-blob", ".tmp");
+        spillChannel = new RandomAccessFile(spillFile, "rw").getChannel();
+        firstSpilledChunk = index;
+        connection.addSpillingBlob(this);
+      }
+      final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+      long position = offsets[index] - offsets[firstSpilledChunk];
+      while (buffer.hasRemaining())
+        position += spillChannel.write(buffer, position);
+    }
+    sizedChunks++;
+  }
+
+  private byte[] readSpilledChunk(final int index) throws IOException {
+    final long start = offsets[index] - offsets[firstSpilledChunk];
+    final int size = (int) (offsets[index + 1] - offsets[index]);
+    if (spillMap == null || start < spillMapOffset || start + size > spillMapOffset + spillMap.capacity()) {
+      // MAP A WINDOW OF THE FILE FROM THE CHUNK ON, THE NEXT CHUNKS ARE READ WITHOUT MAPPING AGAIN
+      final long spilled = offsets[sizedChunks] - offsets[firstSpilledChunk];
+      spillMapOffset = start;
+      spillMap = spillChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(size, Math.min(SPILL_MAP_SIZE, spilled - start)));
+    }
+    final byte[] chunk = new byte[size];
+    final ByteBuffer window = spillMap.duplicate();
+    window.position((int) (start - spillMapOffset));
+    window.get(chunk);
+    return chunk;
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#getBinaryStream()
    */
   public InputStream getBinaryStream() throws SQLException {
-    return new OrientBlobInputStream();
+    return new OrientBlobInputStream(0, Long.MAX_VALUE);
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#position(byte[], long)
    */
   public long position(byte[] pattern, long start) throws SQLException {
-    throw new SQLFeatureNotSupportedException();
+    if (start < 1)
+      throw new SQLException("The position where to start the search cannot be less than 1");
+    final int m = pattern.length;
+    if (m == 0)
+      return start <= getSizeUpTo(start - 1) + 1 ? start : -1;
+
+    // BOYER-MOORE-HORSPOOL: SHIFT BY THE DISTANCE OF THE LAST BYTE OF THE WINDOW FROM THE END OF THE PATTERN
+    final int[] shifts = new int[256];
+    Arrays.fill(shifts, m);
+    for (int i = 0; i < m - 1; i++)
+      shifts[pattern[i] & 0xFF] = m - 1 - i;
+
+    final ChunkCursor cursor = new ChunkCursor();
+    long window = start - 1;
+    while (window + m <= getSizeUpTo(window + m)) {
+      final byte last = cursor.get(window + m - 1);
+      if (last == pattern[m - 1]) {
+        int i = m - 2;
+        while (i >= 0 && cursor.get(window + i) == pattern[i])
+          i--;
+        if (i < 0)
+          return window + 1;
+      }
+      window += shifts[last & 0xFF];
+    }
+    return -1;
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#position(java.sql.Blob, long)
    */
   public long position(Blob pattern, long start) throws SQLException {
-    throw new SQLFeatureNotSupportedException();
+    final long patternLength = pattern.length();
+    if (patternLength > Integer.MAX_VALUE)
+      throw new SQLException("The pattern to search cannot be longer than " + Integer.MAX_VALUE + " bytes");
+    return position(pattern.getBytes(1, (int) patternLength), start);
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#setBytes(long, byte[])
    */
   public int setBytes(long pos, byte[] bytes) throws SQLException {
-    throw new SQLFeatureNotSupportedException();
+    return setBytes(pos, bytes, 0, bytes.length);
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#setBytes(long, byte[], int, int)
    */
   public int setBytes(long pos, byte[] bytes, int offset, int len) throws SQLException {
-    throw new SQLFeatureNotSupportedException();
+    final OutputStream stream = setBinaryStream(pos);
+    try {
+      stream.write(bytes, offset, len);
+      stream.close();
+    } catch (IOException e) {
+      throw new SQLException("An error occurred during the writing of the BLOB", e);
+    }
+    return len;
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#setBinaryStream(long)
    */
   public OutputStream setBinaryStream(long pos) throws SQLException {
-    throw new SQLFeatureNotSupportedException();
+    if (!isWritable())
+      throw new SQLFeatureNotSupportedException("A BLOB read from the database cannot be written");
+    final long size = length();
+    if (size != offsets[sizedChunks] || pos != size + 1)
+      // CHUNKS ARE IMMUTABLE: BYTES CAN ONLY BE APPENDED
+      throw new SQLFeatureNotSupportedException("Bytes can only be written at the end of the BLOB, at position " + (size + 1));
+    length = -1;
+    return new OrientBlobOutputStream();
+  }
+
+  /**
+   * Tells if bytes can be appended to the BLOB, that is if it has been created by the connection.
+   */
+  boolean isWritable() {
+    return chunkSize > 0;
+  }
+
+  /**
+   * Returns the binary records of the chunks, or their identities if they have not been loaded, to be linked by a document.
+   */
+  List<OIdentifiable> getChunks() {
+    return Collections.unmodifiableList(chunks);
+  }
+
+  /**
+   * Saves a chunk written to the BLOB as a new binary record and appends it to the chunks.
+   */
+  private void appendChunk(final byte[] content) throws IOException {
+    final ORID rid;
+    try {
+      database.activateOnCurrentThread();
+      final ORecordBytes record = new ORecordBytes(database, content);
+      database.save(record);
+      rid = record.getIdentity();
+      // ONLY THE IDENTITY IS KEPT, THE CONTENT IS LOADED AGAIN IF IT IS READ
+      database.getLocalCache().deleteRecord(rid);
+    } catch (OException e) {
+      throw new IOException("An error occurred during the saving of a chunk of the BLOB", e);
+    }
+
+    chunks.add(rid);
+    if (offsets.length < chunks.size() + 1)
+      offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, chunks.size() + 1));
+    addSizedChunk(content);
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#truncate(long)
    */
   public void truncate(long len) throws SQLException {
     if (len < 0)
       throw new SQLException("The length of a BLOB cannot be a negtive number.");
-    if (len < this.length)
+    if (len < length())
       this.length = len;
   }
 
-  /*
-   * (non-Javadoc)
-   * 
-   * @see java.sql.Blob#free()
+  /**
+   * Drops the chunks kept in memory and deletes the spill file, if any. The memory mapping of the file is released only when the
+   * garbage collector reclaims it, since Java has no way to unmap a file: on Windows a mapped file cannot be deleted, so it can be
+   * left in the temporary directory.
    */
   public void free() throws SQLException {
-    binaryDataChunks.clear();
+    cache.clear();
+    if (spillFile != null) {
+      spillMap = null;
+      try {
+        spillChannel.close();
+      } catch (IOException e) {
+        throw new SQLException("The spill file " + spillFile + " of the BLOB cannot be closed", e);
+      } finally {
+        spillFile.delete();
+        // THE CHUNKS ARE LOADED AGAIN FROM THE DATABASE
+        firstSpilledChunk = -1;
+        spillFile = null;
+        spillChannel = null;
+        connection.removeSpillingBlob(this);
+      }
+    }
   }
 
   /*
    * (non-Javadoc)
-   * 
+   *
    * @see java.sql.Blob#getBinaryStream(long, long)
    */
   public InputStream getBinaryStream(long pos, long length) throws SQLException {
-    return new OrientBlobInputStream(pos, length);
+    if (pos < 1)
+      throw new SQLException("The position of the first byte in the BLOB value to be read cannot be less than 1");
+    if (length < 0)
+      throw new SQLException("The number of bytes to be read cannot be a negative number");
+    return new OrientBlobInputStream(pos - 1, length);
+  }
+
+  /**
+   * Reads single bytes of a BLOB at any offset, keeping the last two chunks read so that going back and forth across the boundary
+   * of two chunks needs no lookup.
+   */
+  private class ChunkCursor {
+
+    private int    index         = -1;
+    private byte[] chunk;
+    private int    previousIndex = -1;
+    private byte[] previous;
+
+    byte get(final long offset) throws SQLException {
+      if (index < 0 || offset < offsets[index] || offset >= offsets[index] + chunk.length) {
+        if (previousIndex >= 0 && offset >= offsets[previousIndex] && offset < offsets[previousIndex] + previous.length) {
+          final int swappedIndex = index;
+          final byte[] swapped = chunk;
+          index = previousIndex;
+          chunk = previous;
+          previousIndex = swappedIndex;
+          previous = swapped;
+        } else {
+          previousIndex = index;
+          previous = chunk;
+          index = findChunk(offset);
+          chunk = getChunk(index);
+        }
+      }
+      return chunk[(int) (offset - offsets[index])];
+    }
   }
 
-  private class OrientBlobInputStream extends InputStream {
+  /**
+   * Stream appending bytes to a BLOB, that saves a chunk every time its buffer is full. The last chunk is saved on close.
+   */
+  private class OrientBlobOutputStream extends OutputStream {
 
-    private long bytesToBeRead;
+    private byte[] buffer = new byte[chunkSize];
 
-    private int  positionInTheCurrentChunk;
+    private int    count;
+
+    @Override
+    public void write(int b) throws IOException {
+      ensureOpen();
+      buffer[count++] = (byte) b;
+      if (count == buffer.length)
+        flushChunk();
+    }
 
-    public OrientBlobInputStream() {
-      bytesToBeRead = OrientBlob.this.length;
-      positionInTheCurrentChunk = 0;
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      ensureOpen();
+      if (off < 0 || len < 0 || len > b.length - off)
+        throw new IndexOutOfBoundsException();
+      while (len > 0) {
+        final int copied = Math.min(len, buffer.length - count);
+        System.arraycopy(b, off, buffer, count, copied);
+        count += copied;
+        off += copied;
+        len -= copied;
+        if (count == buffer.length)
+          flushChunk();
+      }
     }
 
-    public OrientBlobInputStream(long pos, long length) {
-      bytesToBeRead = length;
-      positionInTheCurrentChunk = OrientBlob.this.getRelativeIndex(pos);
+    @Override
+    public void close() throws IOException {
+      if (buffer == null)
+        return;
+      if (count > 0)
+        appendChunk(Arrays.copyOf(buffer, count));
+      buffer = null;
+    }
+
+    private void flushChunk() throws IOException {
+      // THE RECORD KEEPS THE ARRAY: A NEW BUFFER IS TAKEN FOR THE NEXT CHUNK
+      appendChunk(buffer);
+      buffer = new byte[chunkSize];
+      count = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+      if (buffer == null)
+        throw new IOException("The stream is closed");
+    }
+  }
+
+  /**
+   * Stream on the bytes of a BLOB, that copies whole pieces of chunks on bulk reads and transfers. Only the chunks being read are
+   * loaded, as for the BLOB itself.
+   */
+  public class OrientBlobInputStream extends InputStream {
+
+    private long position;
+
+    private long end;
+
+    private long mark;
+
+    private OrientBlobInputStream(long offset, long length) {
+      position = offset;
+      end = length > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + length;
+      mark = offset;
     }
 
     /*
      * (non-Javadoc)
-     * 
+     *
      * @see java.io.InputStream#read()
      */
     @Override
     public int read() throws IOException {
-      if (bytesToBeRead > 0) {
-        // BOUNDED READING
-
-        // if all the bytes in the current binary chunk have been read,
-        // we move to the next one
-        if (positionInTheCurrentChunk == OrientBlob.this.currentChunk.length - 1) {
-          // check if we've read all the available chunks
-          if (OrientBlob.this.currentChunkIndex == OrientBlob.this.binaryDataChunks.size() - 1) {
-            bytesToBeRead = 0;
-            // we've read the last byte of the last binary chunk!
-            return -1;
-          } else {
-            OrientBlob.this.currentChunk = OrientBlob.this.binaryDataChunks.get(++OrientBlob.this.currentChunkIndex);
-            positionInTheCurrentChunk = 0;
-          }
-        }
-        bytesToBeRead--;
-        return OrientBlob.this.currentChunk[positionInTheCurrentChunk++];
+      final int index = getChunkIndex();
+      if (index < 0)
+        return -1;
+      final byte[] chunk = getStreamChunk(index);
+      return chunk[(int) (position++ - offsets[index])] & 0xFF;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (off < 0 || len < 0 || len > b.length - off)
+        throw new IndexOutOfBoundsException();
+      if (len == 0)
+        return 0;
+
+      int read = 0;
+      while (read < len) {
+        final int index = getChunkIndex();
+        if (index < 0)
+          break;
+        final byte[] chunk = getStreamChunk(index);
+        final int from = (int) (position - offsets[index]);
+        final int count = (int) Math.min(Math.min(chunk.length - from, len - read), end - position);
+        System.arraycopy(chunk, from, b, off + read, count);
+        position += count;
+        read += count;
       }
-      return -1;
+      return read > 0 ? read : -1;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#skip(long)
+     */
+    @Override
+    public long skip(long n) throws IOException {
+      if (n <= 0)
+        return 0;
+      // ONLY THE SIZES OF THE CHUNKS SKIPPED ARE NEEDED, THEIR CONTENT IS NOT KEPT
+      final long target = n > end - position ? end : position + n;
+      final long size;
+      try {
+        size = getSizeUpTo(target);
+      } catch (SQLException e) {
+        throw new IOException(e);
+      }
+      final long skipped = Math.min(target, Math.max(size, position)) - position;
+      position += skipped;
+      return skipped;
     }
 
+    /**
+     * Returns the bytes left in the chunk being read, that can be read without loading another chunk.
+     */
+    @Override
+    public int available() throws IOException {
+      if (position >= end)
+        return 0;
+      final int index;
+      try {
+        index = position < offsets[sizedChunks] ? findChunk(position) : -1;
+      } catch (SQLException e) {
+        throw new IOException(e);
+      }
+      if (index < 0 || !cache.containsKey(index))
+        return 0;
+      return (int) Math.min(offsets[index + 1] - position, end - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+      mark = position;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+      position = mark;
+    }
+
+    /**
+     * Writes all the bytes left to an output stream, a whole piece of chunk at a time, and returns the number of bytes written.
+     */
+    public long transferTo(OutputStream out) throws IOException {
+      long transferred = 0;
+      int index;
+      while ((index = getChunkIndex()) >= 0) {
+        final byte[] chunk = getStreamChunk(index);
+        final int from = (int) (position - offsets[index]);
+        final int count = (int) Math.min(chunk.length - from, end - position);
+        out.write(chunk, from, count);
+        position += count;
+        transferred += count;
+      }
+      return transferred;
+    }
+
+    /**
+     * Returns the index of the chunk holding the next byte, or -1 at the end of the stream.
+     */
+    private int getChunkIndex() throws IOException {
+      if (position >= end)
+        return -1;
+      try {
+        final int index = findChunk(position);
+        if (index < 0)
+          // PAST THE LAST BYTE OF THE LAST CHUNK
+          end = position;
+        return index;
+      } catch (SQLException e) {
+        throw new IOException(e);
+      }
+    }
+
+    private byte[] getStreamChunk(final int index) throws IOException {
+      try {
+        return getChunk(index);
+      } catch (SQLException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  /**
+   * Returns the file the chunks past the spill threshold are written to, or <code>null</code> if none has been spilled.
+   */
+  File getSpillFile() {
+    return spillFile;
+  }
+
+  /**
+   * Contents of the last chunks read by index in access order, that discards the least recently used beyond its size.
+   */
+  private static class ChunkCache extends LinkedHashMap<Integer, byte[]> {
+    private static final long serialVersionUID = 1L;
+
+    private final int         maxSize;
+
+    ChunkCache(final int iMaxSize) {
+      super(iMaxSize * 2, 0.75f, true);
+      maxSize = iMaxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<Integer, byte[]> eldest) {
+      return size() > maxSize;
+    }
   }
 }
@@ -0,0 +1,335 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+
+/**
+ * CLOB read from a STRING field, or stored as UTF-8 in the chunks of a BLOB. The chunks are decoded while they are read, so a
+ * CLOB stored in chunks is never held in memory as a whole: only the chunks of the underlying BLOB being read are loaded.
+ * <p>
+ * Characters are appended through {@link #setCharacterStream(long)} at the end of a CLOB created by the connection, and encoded
+ * to UTF-8 while they are written. The characters written are counted, so the length of a CLOB created by the driver is always
+ * known, while the one of a CLOB read from the database is known once it has been decoded. A CLOB read from the database cannot be
+ * written: the chunks appended would not be linked by its document.
+ */
+public class OrientClob implements NClob {
+
+  private static final Charset UTF8   = Charset.forName("UTF-8");
+
+  private final OrientBlob     bytes;
+
+  private String               text;
+  private long                 length = -1;
+
+  /**
+   * Creates a CLOB over the value of a STRING field.
+   */
+  protected OrientClob(final String iText) {
+    text = iText;
+    bytes = null;
+  }
+
+  /**
+   * Creates a CLOB over a BLOB holding UTF-8 text.
+   */
+  protected OrientClob(final OrientBlob iBytes) {
+    text = null;
+    bytes = iBytes;
+    if (iBytes.getChunks().isEmpty())
+      length = 0;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#length()
+   */
+  public long length() throws SQLException {
+    if (text != null)
+      return text.length();
+
+    if (length < 0) {
+      // THE TEXT IS DECODED ONCE TO COUNT THE CHARACTERS
+      final Reader reader = getCharacterStream();
+      final char[] buffer = new char[8192];
+      long count = 0;
+      try {
+        int read;
+        while ((read = reader.read(buffer)) != -1)
+          count += read;
+        reader.close();
+      } catch (IOException e) {
+        throw new SQLException("An error occurred during the decoding of the CLOB", e);
+      }
+      length = count;
+    }
+    return length;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#getSubString(long, int)
+   */
+  public String getSubString(long pos, int length) throws SQLException {
+    if (length < 0)
+      throw new SQLException("The number of the consecutive characters in the CLOB value to "
+          + "be extracted cannot be a negative number");
+
+    final Reader reader = getCharacterStream(pos, length);
+    final StringBuilder subString = new StringBuilder(Math.min(length, 8192));
+    final char[] buffer = new char[Math.min(Math.max(length, 1), 8192)];
+    try {
+      int read;
+      while ((read = reader.read(buffer)) != -1)
+        subString.append(buffer, 0, read);
+      reader.close();
+    } catch (IOException e) {
+      throw new SQLException("An error occurred during the decoding of the CLOB", e);
+    }
+    return subString.toString();
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#getCharacterStream()
+   */
+  public Reader getCharacterStream() throws SQLException {
+    if (text != null)
+      return new StringReader(text);
+    // THE DECODER KEEPS THE BYTES OF A CHARACTER SPLIT ACROSS TWO CHUNKS UNTIL THE NEXT ONE IS READ
+    return new InputStreamReader(bytes.getBinaryStream(), UTF8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE));
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#getCharacterStream(long, long)
+   */
+  public Reader getCharacterStream(long pos, final long length) throws SQLException {
+    if (pos < 1)
+      throw new SQLException("The position of the first character in the CLOB value to be read cannot be less than 1");
+    if (length < 0)
+      throw new SQLException("The number of characters to be read cannot be a negative number");
+
+    final Reader reader = getCharacterStream();
+    try {
+      long skipped;
+      for (long toSkip = pos - 1; toSkip > 0; toSkip -= skipped)
+        if ((skipped = reader.skip(toSkip)) == 0)
+          break;
+    } catch (IOException e) {
+      throw new SQLException("An error occurred during the decoding of the CLOB", e);
+    }
+
+    return new FilterReader(reader) {
+      private long left = length;
+
+      @Override
+      public int read() throws IOException {
+        if (left <= 0)
+          return -1;
+        final int c = super.read();
+        if (c != -1)
+          left--;
+        return c;
+      }
+
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        if (left <= 0)
+          return -1;
+        final int read = super.read(cbuf, off, (int) Math.min(len, left));
+        if (read > 0)
+          left -= read;
+        return read;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+        final long skipped = super.skip(Math.min(n, left));
+        left -= skipped;
+        return skipped;
+      }
+    };
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#getAsciiStream()
+   */
+  public InputStream getAsciiStream() throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#position(java.lang.String, long)
+   */
+  public long position(String searchstr, long start) throws SQLException {
+    if (start < 1)
+      throw new SQLException("The position where to start the search cannot be less than 1");
+    if (text == null)
+      throw new SQLFeatureNotSupportedException("A CLOB stored in chunks cannot be searched");
+    if (start > Integer.MAX_VALUE)
+      return -1;
+    final int found = text.indexOf(searchstr, (int) start - 1);
+    return found >= 0 ? found + 1 : -1;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#position(java.sql.Clob, long)
+   */
+  public long position(Clob searchstr, long start) throws SQLException {
+    final long searchLength = searchstr.length();
+    if (searchLength > Integer.MAX_VALUE)
+      throw new SQLException("The text to search cannot be longer than " + Integer.MAX_VALUE + " characters");
+    return position(searchstr.getSubString(1, (int) searchLength), start);
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#setString(long, java.lang.String)
+   */
+  public int setString(long pos, String str) throws SQLException {
+    return setString(pos, str, 0, str.length());
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#setString(long, java.lang.String, int, int)
+   */
+  public int setString(long pos, String str, int offset, int len) throws SQLException {
+    final Writer writer = setCharacterStream(pos);
+    try {
+      writer.write(str, offset, len);
+      writer.close();
+    } catch (IOException e) {
+      throw new SQLException("An error occurred during the writing of the CLOB", e);
+    }
+    return len;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#setAsciiStream(long)
+   */
+  public OutputStream setAsciiStream(long pos) throws SQLException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  /**
+   * Returns a stream appending characters at the end of a CLOB created by the connection, the only position where they can be
+   * written.
+   */
+  public Writer setCharacterStream(long pos) throws SQLException {
+    if (text != null || !bytes.isWritable())
+      throw new SQLFeatureNotSupportedException("A CLOB read from the database cannot be written");
+    final long size = length();
+    if (pos != size + 1)
+      // THE CHARACTERS ARE ENCODED IN IMMUTABLE CHUNKS: THEY CAN ONLY BE APPENDED
+      throw new SQLFeatureNotSupportedException("Characters can only be written at the end of the CLOB, at position " + (size + 1));
+
+    final OutputStream stream = bytes.setBinaryStream(bytes.length() + 1);
+    // THE CHARACTERS ARE COUNTED WHILE THEY ARE WRITTEN, SO THE NEXT APPEND DOES NOT DECODE THE CLOB AGAIN
+    return new OutputStreamWriter(stream, UTF8.newEncoder()) {
+      @Override
+      public void write(int c) throws IOException {
+        super.write(c);
+        length++;
+      }
+
+      @Override
+      public void write(char[] cbuf, int off, int len) throws IOException {
+        super.write(cbuf, off, len);
+        length += len;
+      }
+
+      @Override
+      public void write(String str, int off, int len) throws IOException {
+        super.write(str, off, len);
+        length += len;
+      }
+    };
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#truncate(long)
+   */
+  public void truncate(long len) throws SQLException {
+    if (len < 0)
+      throw new SQLException("The length of a CLOB cannot be a negtive number.");
+    if (text == null)
+      throw new SQLFeatureNotSupportedException("A CLOB stored in chunks cannot be truncated");
+    if (len < text.length())
+      text = text.substring(0, (int) len);
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.sql.Clob#free()
+   */
+  public void free() throws SQLException {
+    if (bytes != null)
+      bytes.free();
+  }
+
+  /**
+   * Returns the text read from a STRING field, or <code>null</code> if the CLOB is stored in chunks.
+   */
+  String getText() {
+    return text;
+  }
+
+  /**
+   * Returns the chunks the CLOB is stored in, or <code>null</code> if it was read from a STRING field.
+   */
+  List<OIdentifiable> getChunks() {
+    return bytes != null ? bytes.getChunks() : null;
+  }
+}
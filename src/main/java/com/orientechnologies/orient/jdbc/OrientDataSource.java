@@ -77,14 +77,26 @@ public class OrientDataSource implements DataSource {
     return DriverManager.getConnection(url, username, password);
   }
 
+  public String getUrl() {
+    return url;
+  }
+
   public void setUrl(String url) {
     this.url = url;
   }
 
+  public String getUsername() {
+    return username;
+  }
+
   public void setUsername(String username) {
     this.username = username;
   }
 
+  public String getPassword() {
+    return password;
+  }
+
   public void setPassword(String password) {
     this.password = password;
   }
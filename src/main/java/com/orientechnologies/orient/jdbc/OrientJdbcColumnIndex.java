@@ -0,0 +1,76 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable index of the column labels of a result set, built once from the field names of a record and shared by all the rows
+ * with the same fields. A label is looked up as it is first, then ignoring the case as JDBC requires: when two columns differ only
+ * by case the first one wins.
+ */
+final class OrientJdbcColumnIndex {
+
+  private final String[]             labels;
+  private final Map<String, Integer> exact;
+  private final Map<String, Integer> ignoringCase;
+
+  OrientJdbcColumnIndex(final String[] iLabels) {
+    labels = iLabels.clone();
+    exact = new HashMap<String, Integer>(labels.length * 2);
+    ignoringCase = new HashMap<String, Integer>(labels.length * 2);
+    for (int i = labels.length - 1; i >= 0; i--) {
+      exact.put(labels[i], i + 1);
+      ignoringCase.put(labels[i].toLowerCase(Locale.ENGLISH), i + 1);
+    }
+  }
+
+  /**
+   * Returns the number of columns.
+   */
+  int size() {
+    return labels.length;
+  }
+
+  /**
+   * Returns the label of a column, starting from 1.
+   */
+  String getLabel(final int column) {
+    return labels[column - 1];
+  }
+
+  /**
+   * Returns the column of a label, starting from 1, or 0 if there is no such column.
+   */
+  int find(final String label) {
+    Integer column = exact.get(label);
+    if (column == null && label != null)
+      column = ignoringCase.get(label.toLowerCase(Locale.ENGLISH));
+    return column != null ? column : 0;
+  }
+
+  /**
+   * Tells if the index has exactly these labels, in this order.
+   */
+  boolean matches(final String[] iLabels) {
+    return Arrays.equals(labels, iLabels);
+  }
+}
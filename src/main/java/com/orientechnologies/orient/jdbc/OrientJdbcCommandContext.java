@@ -0,0 +1,82 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.command.OCommandRequestAbstract;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+
+/**
+ * Context of the commands executed by a statement. The SQL executors check the context for every record they browse, so it is the
+ * place where the query timeout is enforced and where a {@link #cancel()} requested by another thread is noticed. A context lives
+ * for one execution of a statement, and the timeout counts from its creation, so an execution that runs several requests, like the
+ * pages of a cursor, is limited as a whole.
+ * <p>
+ * The context is checked only by the executors running in this JVM. On a remote database the server executes the requests with a
+ * context of its own: a cancellation is noticed only between the pages of a paged cursor.
+ */
+class OrientJdbcCommandContext extends OBasicCommandContext {
+
+  private final long             timeoutMs;
+  private final TIMEOUT_STRATEGY timeoutStrategy;
+  private final long             startedOn;
+  private volatile boolean       cancelled;
+
+  OrientJdbcCommandContext(final long iTimeoutMs, final TIMEOUT_STRATEGY iTimeoutStrategy) {
+    timeoutMs = iTimeoutMs;
+    timeoutStrategy = iTimeoutStrategy;
+    startedOn = System.currentTimeMillis();
+  }
+
+  /**
+   * Binds a request of the execution to this context. The request gets the time left before the timeout expires.
+   */
+  <T extends OCommandRequestAbstract> T apply(final T request) {
+    if (timeoutMs > 0)
+      request.setTimeout(Math.max(1, timeoutMs - (System.currentTimeMillis() - startedOn)), timeoutStrategy);
+    request.setContext(this);
+    return request;
+  }
+
+  void cancel() {
+    cancelled = true;
+  }
+
+  boolean isCancelled() {
+    return cancelled;
+  }
+
+  void checkCancelled() {
+    if (cancelled)
+      throw new OCommandExecutionException("The execution of the command has been cancelled");
+  }
+
+  @Override
+  public boolean checkTimeout() {
+    checkCancelled();
+
+    if (timeoutMs > 0 && System.currentTimeMillis() - startedOn > timeoutMs) {
+      if (timeoutStrategy == OCommandContext.TIMEOUT_STRATEGY.RETURN)
+        return false;
+      throw new OTimeoutException("Command execution timeout exceed (" + timeoutMs + "ms)");
+    }
+    return super.checkTimeout();
+  }
+}
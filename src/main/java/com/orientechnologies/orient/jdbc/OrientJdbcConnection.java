@@ -18,14 +18,25 @@
 package com.orientechnologies.orient.jdbc;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.command.OCommandContext.TIMEOUT_STRATEGY;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentPool;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 
 /**
  * 
@@ -34,28 +45,70 @@ import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
  */
 public class OrientJdbcConnection implements Connection {
 
-  private final String        dbUrl;
-  private final Properties    info;
-  private final boolean       usePool;
-  private ODatabaseDocumentTx database;
-  private boolean             readOnly = false;
-  private boolean             autoCommit;
-  private ODatabase.STATUS    status;
+  private final String                                   dbUrl;
+  private final Properties                               info;
+  private final boolean                                  usePool;
+  private final boolean                                  streaming;
+  private final int                                      streamingBufferSize;
+  private final TIMEOUT_STRATEGY                         timeoutStrategy;
+  private final boolean                                  schemaColumns;
+  private final int                                      blobChunkCacheSize;
+  private final int                                      blobChunkSize;
+  private final long                                     blobSpillThreshold;
+  private final String                                   rowStore;
+  private final int                                      statementCacheSize;
+  private final Map<String, OrientJdbcPreparedStatement> statementCache;
+  private final Set<OrientBlob>                          spillingBlobs;
+  private final Set<OrientJdbcRowStore>                  rowStores;
+  private final OrientJdbcConnectionPool                 pool;
+  private ODatabaseDocumentTx                            database;
+  private OrientJdbcDatabaseMetaData                     metaData;
+  private boolean                                        readOnly   = false;
+  private boolean                                        autoCommit = true;
+  private ODatabase.STATUS                               status;
+
+  public OrientJdbcConnection(String iUrl, Properties iInfo) throws SQLException {
+    this(iUrl, iInfo, null, null);
+  }
 
-  public OrientJdbcConnection(String iUrl, Properties iInfo) {
+  /**
+   * Creates a connection on a session of a pool, that gets the session back when the connection is closed.
+   * 
+   * @throws SQLException
+   *           if a connection property has not a valid value
+   */
+  OrientJdbcConnection(String iUrl, Properties iInfo, ODatabaseDocumentTx iDatabase, OrientJdbcConnectionPool iPool)
+      throws SQLException {
     dbUrl = iUrl.replace("jdbc:orient:", "");
+    pool = iPool;
 
     info = iInfo;
 
     final String username = iInfo.getProperty("user", "admin");
     final String password = iInfo.getProperty("password", "admin");
 
+    streaming = Boolean.parseBoolean(iInfo.getProperty("db.streaming", "false"));
+    streamingBufferSize = (int) getNumber(iInfo, "db.streaming.bufferSize", 1000, 1, Integer.MAX_VALUE);
+    timeoutStrategy = TIMEOUT_STRATEGY.valueOf(getOption(iInfo, "db.query.timeoutStrategy", TIMEOUT_STRATEGY.EXCEPTION.name(),
+        TIMEOUT_STRATEGY.EXCEPTION.name(), TIMEOUT_STRATEGY.RETURN.name()));
+    schemaColumns = Boolean.parseBoolean(iInfo.getProperty("db.query.schemaColumns", "false"));
+    blobChunkCacheSize = (int) getNumber(iInfo, "db.blob.chunkCacheSize", 2, 0, Integer.MAX_VALUE);
+    blobChunkSize = (int) getNumber(iInfo, "db.blob.chunkSize", 65536, 1, Integer.MAX_VALUE);
+    blobSpillThreshold = getNumber(iInfo, "db.blob.spillThreshold", 0, 0, Long.MAX_VALUE);
+    rowStore = getOption(iInfo, "db.query.rowStore", "memory", "memory", "file", "offHeap").toLowerCase(Locale.ENGLISH);
+    statementCacheSize = (int) getNumber(iInfo, "db.statementCacheSize", 0, 0, Integer.MAX_VALUE);
+    statementCache = new StatementCache(statementCacheSize);
+    spillingBlobs = new HashSet<OrientBlob>();
+    rowStores = new HashSet<OrientJdbcRowStore>();
+
     usePool = Boolean.parseBoolean(iInfo.getProperty("db.usePool", "false"));
-    if (usePool) {
-      final int poolMinSize = Integer
-          .parseInt(iInfo.getProperty("db.pool.min", OGlobalConfiguration.DB_POOL_MAX.getValueAsString()));
-      final int poolMaxSize = Integer
-          .parseInt(iInfo.getProperty("db.pool.max", OGlobalConfiguration.DB_POOL_MAX.getValueAsString()));
+    if (iDatabase != null) {
+      database = iDatabase;
+    } else if (usePool) {
+      final int poolMinSize = (int) getNumber(iInfo, "db.pool.min", OGlobalConfiguration.DB_POOL_MIN.getValueAsInteger(), 0,
+          Integer.MAX_VALUE);
+      final int poolMaxSize = (int) getNumber(iInfo, "db.pool.max", OGlobalConfiguration.DB_POOL_MAX.getValueAsInteger(), 1,
+          Integer.MAX_VALUE);
 
       database = ODatabaseDocumentPool.global(poolMinSize, poolMaxSize).acquire(dbUrl, username, password);
     } else {
@@ -69,20 +122,61 @@ public class OrientJdbcConnection implements Connection {
   }
 
   public void close() throws SQLException {
+    statementCache.clear();
+    // THE SPILL FILES OF THE BLOBS NOT FREED BY THE CALLER ARE DELETED
+    for (OrientBlob blob : new ArrayList<OrientBlob>(spillingBlobs))
+      blob.free();
+    // AS WELL AS THE ROWS OF THE RESULT SETS NOT CLOSED
+    for (OrientJdbcRowStore rows : new ArrayList<OrientJdbcRowStore>(rowStores))
+      closeRowStore(rows);
     status = ODatabase.STATUS.CLOSED;
     if (database != null) {
       database.activateOnCurrentThread();
-      database.close();
-      database = null;
+      try {
+        // THE CHANGES NOT COMMITTED ARE DISCARDED
+        if (database.getTransaction().isActive())
+          database.rollback();
+      } finally {
+        if (pool != null)
+          pool.release(database);
+        else
+          database.close();
+        database = null;
+      }
     }
   }
 
   public void commit() throws SQLException {
-    database.commit();
+    if (!database.getTransaction().isActive())
+      return;
+    try {
+      database.commit();
+    } catch (OException e) {
+      throw new SQLException("Error on committing the transaction", e);
+    }
   }
 
   public void rollback() throws SQLException {
-    database.rollback();
+    if (!database.getTransaction().isActive())
+      return;
+    try {
+      database.rollback();
+    } catch (OException e) {
+      throw new SQLException("Error on rolling back the transaction", e);
+    }
+  }
+
+  /**
+   * Opens a transaction, if none is active, when the connection is in manual commit mode. The transaction keeps the changes on the
+   * client and sends them to the database all together on {@link #commit()}.
+   * <p>
+   * This holds for the embedded databases (<code>memory:</code>, <code>plocal:</code>) only. On a <code>remote:</code> database
+   * the SQL commands run on the server, outside of the transaction of the client: their changes are applied right away, and
+   * {@link #rollback()} cannot undo them.
+   */
+  void beginTransaction() {
+    if (!autoCommit && !database.getTransaction().isActive())
+      database.begin();
   }
 
   public boolean isClosed() throws SQLException {
@@ -107,18 +201,15 @@ public class OrientJdbcConnection implements Connection {
   }
 
   public Blob createBlob() throws SQLException {
-
-    return null;
+    return newWritableBlob();
   }
 
   public Clob createClob() throws SQLException {
-
-    return null;
+    return new OrientClob(newWritableBlob());
   }
 
   public NClob createNClob() throws SQLException {
-
-    return null;
+    return new OrientClob(newWritableBlob());
   }
 
   public SQLXML createSQLXML() throws SQLException {
@@ -131,11 +222,11 @@ public class OrientJdbcConnection implements Connection {
   }
 
   public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
-    return new OrientJdbcStatement(this);
+    return new OrientJdbcStatement(this, resultSetType, resultSetConcurrency);
   }
 
   public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-    return new OrientJdbcStatement(this);
+    return new OrientJdbcStatement(this, resultSetType, resultSetConcurrency, resultSetHoldability);
   }
 
   public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
@@ -148,7 +239,14 @@ public class OrientJdbcConnection implements Connection {
     return autoCommit;
   }
 
+  /**
+   * Switches between auto-commit and manual commit mode. In manual commit mode the writes of the statements run in a transaction,
+   * ended by {@link #commit()} or {@link #rollback()}; see {@link #beginTransaction()} for the limits on a remote database.
+   */
   public void setAutoCommit(boolean autoCommit) throws SQLException {
+    // SWITCHING TO AUTO-COMMIT COMMITS THE CURRENT TRANSACTION
+    if (autoCommit && !this.autoCommit)
+      commit();
     this.autoCommit = autoCommit;
   }
 
@@ -182,7 +280,9 @@ public class OrientJdbcConnection implements Connection {
   }
 
   public DatabaseMetaData getMetaData() throws SQLException {
-    return new OrientJdbcDatabaseMetaData(this, getDatabase());
+    if (metaData == null)
+      metaData = new OrientJdbcDatabaseMetaData(this, getDatabase());
+    return metaData;
   }
 
   public int getTransactionIsolation() throws SQLException {
@@ -223,7 +323,7 @@ public class OrientJdbcConnection implements Connection {
   }
 
   public PreparedStatement prepareStatement(String sql) throws SQLException {
-    return new OrientJdbcPreparedStatement(this, sql);
+    return prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
   }
 
   public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
@@ -239,12 +339,27 @@ public class OrientJdbcConnection implements Connection {
   }
 
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-    throw new SQLFeatureNotSupportedException();
+    return prepareStatement(sql, resultSetType, resultSetConcurrency, ResultSet.HOLD_CURSORS_OVER_COMMIT);
   }
 
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability)
       throws SQLException {
-    throw new SQLFeatureNotSupportedException();
+    final OrientJdbcPreparedStatement released = statementCache.remove(sql);
+    if (released != null)
+      return new OrientJdbcPreparedStatement(this, released, resultSetType, resultSetConcurrency, resultSetHoldability);
+    return new OrientJdbcPreparedStatement(this, sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+  }
+
+  /**
+   * Keeps a closed poolable statement, whose commands are taken over by a new statement at the next
+   * {@link #prepareStatement(String)} of the same SQL. Up to <code>db.statementCacheSize</code> statements are kept, the least
+   * recently used are discarded first. The cache is disabled by default.
+   * <p>
+   * The cache saves the creation of the requests only: OrientDB parses the SQL again at every execution.
+   */
+  void releaseStatement(final OrientJdbcPreparedStatement statement) {
+    if (statementCacheSize > 0 && status == ODatabase.STATUS.OPEN)
+      statementCache.put(statement.getSql(), statement);
   }
 
   public void releaseSavepoint(Savepoint savepoint) throws SQLException {
@@ -287,6 +402,121 @@ public class OrientJdbcConnection implements Connection {
     return database;
   }
 
+  /**
+   * Tells if forward-only queries are streamed from a background query instead of being fully loaded before returning the result
+   * set. Enabled by the <code>db.streaming</code> connection property.
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * Maximum number of records buffered by a streaming result set ahead of the reader, set by the
+   * <code>db.streaming.bufferSize</code> connection property.
+   */
+  public int getStreamingBufferSize() {
+    return streamingBufferSize;
+  }
+
+  /**
+   * What happens when a command exceeds the query timeout of its statement, set by the <code>db.query.timeoutStrategy</code>
+   * connection property: <code>EXCEPTION</code> (the default) or <code>RETURN</code> the records found so far.
+   */
+  public TIMEOUT_STRATEGY getTimeoutStrategy() {
+    return timeoutStrategy;
+  }
+
+  /**
+   * Tells if the columns of a <code>SELECT * FROM &lt;class&gt;</code> are the properties of the class in the schema instead of the
+   * fields of the first record. Enabled by the <code>db.query.schemaColumns</code> connection property.
+   */
+  public boolean isSchemaColumns() {
+    return schemaColumns;
+  }
+
+  /**
+   * Number of chunks of a BLOB kept in memory after they have been read, set by the <code>db.blob.chunkCacheSize</code>
+   * connection property. The other chunks are loaded again when they are read again.
+   */
+  public int getBlobChunkCacheSize() {
+    return blobChunkCacheSize;
+  }
+
+  /**
+   * Size in bytes of the binary records a BLOB is split into when it is written, set by the <code>db.blob.chunkSize</code>
+   * connection property. 64KB by default.
+   */
+  public int getBlobChunkSize() {
+    return blobChunkSize;
+  }
+
+  /**
+   * Number of bytes read from a BLOB past which its chunks are spilled to a temporary file and read again from there instead of
+   * from the database, set by the <code>db.blob.spillThreshold</code> connection property. 0, the default, never spills.
+   */
+  public long getBlobSpillThreshold() {
+    return blobSpillThreshold;
+  }
+
+  /**
+   * Tells if the rows of scroll-insensitive result sets are kept serialized out of the heap instead of as records, set by the
+   * <code>db.query.rowStore</code> connection property: <code>memory</code> (the default) keeps the records, <code>file</code>
+   * keeps the rows in a temporary file and <code>offHeap</code> in direct buffers.
+   */
+  public boolean isRowStore() {
+    return !"memory".equals(rowStore);
+  }
+
+  /**
+   * Tells if the rows of all the result sets, even the ones fully read by the query, are kept serialized in direct buffers instead of
+   * as records. Enabled by the <code>offHeap</code> value of the <code>db.query.rowStore</code> connection property. A query that is
+   * not streamed still returns all its records at once, so they are serialized only once the whole list is built: this lowers the
+   * heap retained by the open result set, not the peak reached by the execution.
+   */
+  public boolean isOffHeapRowStore() {
+    return "offheap".equals(rowStore);
+  }
+
+  /**
+   * Creates the store of the rows of a result set, that is closed with the connection if the result set is not closed before.
+   */
+  OrientJdbcRowStore newRowStore() throws SQLException {
+    final OrientJdbcRowStore rows = isOffHeapRowStore() ? new OrientJdbcDirectRowStore() : new OrientJdbcFileRowStore();
+    rowStores.add(rows);
+    return rows;
+  }
+
+  void closeRowStore(final OrientJdbcRowStore rows) throws SQLException {
+    rowStores.remove(rows);
+    rows.close();
+  }
+
+  /**
+   * Creates a read-only BLOB over binary records of this database, configured by the connection properties. Its chunks are linked
+   * by a document: new chunks appended to it would not be.
+   */
+  OrientBlob newBlob(final List<? extends OIdentifiable> chunks) {
+    return new OrientBlob(this, chunks, blobChunkCacheSize, 0, blobSpillThreshold);
+  }
+
+  /**
+   * Creates an empty BLOB, whose bytes are appended in chunks of the size set by the connection properties.
+   */
+  private OrientBlob newWritableBlob() {
+    return new OrientBlob(this, Collections.<OIdentifiable> emptyList(), blobChunkCacheSize, blobChunkSize, blobSpillThreshold);
+  }
+
+  /**
+   * Keeps a BLOB that spilled chunks to a file, to free it when the connection is closed if it has not been freed before.
+   */
+  void addSpillingBlob(final OrientBlob blob) {
+    spillingBlobs.add(blob);
+  }
+
+  void removeSpillingBlob(final OrientBlob blob) {
+    spillingBlobs.remove(blob);
+  }
+
   public void abort(Executor arg0) throws SQLException {
 
   }
@@ -308,4 +538,64 @@ public class OrientJdbcConnection implements Connection {
   public void setNetworkTimeout(Executor arg0, int arg1) throws SQLException {
     OGlobalConfiguration.NETWORK_SOCKET_TIMEOUT.setValue(arg1);
   }
+
+  /**
+   * Returns the value of a numeric connection property, or its default when it is not set.
+   * 
+   * @throws SQLException
+   *           if the value is not a number between the bounds
+   */
+  private static long getNumber(final Properties info, final String name, final long defaultValue, final long min, final long max)
+      throws SQLException {
+    final String value = info.getProperty(name);
+    if (value == null)
+      return defaultValue;
+    try {
+      final long number = Long.parseLong(value.trim());
+      if (number >= min && number <= max)
+        return number;
+    } catch (NumberFormatException e) {
+      // REPORTED BELOW
+    }
+    throw new SQLException("Invalid value '" + value + "' of the connection property " + name + ": it must be a number from " + min
+        + " to " + max);
+  }
+
+  /**
+   * Returns the value of a connection property that is one of a set of options, ignoring the case, or its default when it is not
+   * set.
+   * 
+   * @throws SQLException
+   *           if the value is not one of the options
+   */
+  private static String getOption(final Properties info, final String name, final String defaultValue, final String... options)
+      throws SQLException {
+    final String value = info.getProperty(name);
+    if (value == null)
+      return defaultValue;
+    for (String option : options)
+      if (option.equalsIgnoreCase(value.trim()))
+        return option;
+    throw new SQLException("Invalid value '" + value + "' of the connection property " + name + ": it must be one of "
+        + Arrays.toString(options));
+  }
+
+  /**
+   * Closed statements by SQL in access order, that discards the least recently used beyond its size.
+   */
+  private static class StatementCache extends LinkedHashMap<String, OrientJdbcPreparedStatement> {
+    private static final long serialVersionUID = 1L;
+
+    private final int         maxSize;
+
+    StatementCache(final int iMaxSize) {
+      super(16, 0.75f, true);
+      maxSize = iMaxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, OrientJdbcPreparedStatement> eldest) {
+      return size() > maxSize;
+    }
+  }
 }
@@ -0,0 +1,383 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * Pool of the database sessions behind the connections of an {@link OrientPooledDataSource}. Opening a session is the expensive
+ * part of a connection, so the pool keeps the sessions open and hands them to new connections, that give them back on close.
+ * <p>
+ * The pool never holds more than <code>maxSize</code> sessions: when all of them are in use a borrower waits up to
+ * <code>maxWait</code> milliseconds. Up to <code>maxIdle</code> sessions are kept when given back, and the ones idle for more than
+ * <code>idleTimeout</code> milliseconds are closed by a background task, started by {@link #startEvictor()}, that also keeps
+ * <code>minIdle</code> sessions ready.
+ */
+class OrientJdbcConnectionPool {
+
+  /**
+   * Upper bounds, in milliseconds, of the buckets of the borrow latency histogram. The last bucket has no bound.
+   */
+  static final long[]               LATENCY_BUCKETS = { 1, 5, 10, 50, 100, 500, 1000 };
+
+  private final String              url;
+  private final Properties          info;
+  private final String              dbUrl;
+  private final String              username;
+  private final String              password;
+  private final int                 minIdle;
+  private final int                 maxIdle;
+  private final int                 maxSize;
+  private final long                maxWait;
+  private final long                idleTimeout;
+  private final boolean             validateOnBorrow;
+
+  private final ReentrantLock       lock            = new ReentrantLock();
+  private final Condition           available       = lock.newCondition();
+  private final Deque<IdleSession>  idle            = new ArrayDeque<IdleSession>();
+  private final long[]              latencies       = new long[LATENCY_BUCKETS.length + 1];
+  private Timer                     evictor;
+  private int                       active;
+  private int                       opening;
+  private int                       waiting;
+  private boolean                   closed;
+
+  OrientJdbcConnectionPool(final String iUrl, final Properties iInfo, final int iMinIdle, final int iMaxIdle, final int iMaxSize,
+      final long iMaxWait, final long iIdleTimeout, final boolean iValidateOnBorrow) {
+    url = iUrl;
+    info = iInfo;
+    dbUrl = iUrl.replace("jdbc:orient:", "");
+    username = iInfo.getProperty("user", "admin");
+    password = iInfo.getProperty("password", "admin");
+    minIdle = iMinIdle;
+    maxIdle = iMaxIdle;
+    maxSize = iMaxSize;
+    maxWait = iMaxWait;
+    idleTimeout = iIdleTimeout;
+    validateOnBorrow = iValidateOnBorrow;
+  }
+
+  /**
+   * Starts the background task that runs {@link #evict(long)} periodically.
+   */
+  void startEvictor() {
+    final Timer timer = new Timer("OrientDB JDBC pool evictor " + dbUrl, true);
+    final long period = idleTimeout > 0 ? Math.max(idleTimeout / 2, 100) : 1000;
+    timer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        evict(System.currentTimeMillis());
+      }
+    }, 0, period);
+
+    lock.lock();
+    try {
+      evictor = timer;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a new connection on a pooled session, waiting for a session to be given back if the pool is exhausted.
+   */
+  OrientJdbcConnection getConnection() throws SQLException {
+    final long start = System.nanoTime();
+    final ODatabaseDocumentTx database = borrow(start);
+    final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    lock.lock();
+    try {
+      int bucket = 0;
+      while (bucket < LATENCY_BUCKETS.length && elapsed > LATENCY_BUCKETS[bucket])
+        bucket++;
+      latencies[bucket]++;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      return new OrientJdbcConnection(url, info, database, this);
+    } catch (SQLException e) {
+      release(database);
+      throw e;
+    }
+  }
+
+  private ODatabaseDocumentTx borrow(final long start) throws SQLException {
+    final long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWait);
+    while (true) {
+      IdleSession candidate = null;
+      boolean open = false;
+
+      lock.lock();
+      try {
+        waiting++;
+        try {
+          while (!closed && idle.isEmpty() && active + opening >= maxSize) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+              throw new SQLTransientConnectionException("Timeout of " + maxWait + "ms expired waiting for a connection, "
+                  + active + " connections are in use");
+            available.awaitNanos(remaining);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        } finally {
+          waiting--;
+        }
+        if (closed)
+          throw new SQLException("The connection pool is closed");
+
+        if (!idle.isEmpty()) {
+          candidate = idle.pollFirst();
+          active++;
+        } else {
+          opening++;
+          open = true;
+        }
+      } finally {
+        lock.unlock();
+      }
+
+      if (open)
+        return open();
+
+      final ODatabaseDocumentTx database = candidate.database;
+      if (!validateOnBorrow || isValid(database)) {
+        database.activateOnCurrentThread();
+        return database;
+      }
+      // THE SESSION IS BROKEN: DISCARD IT AND TRY AGAIN
+      lock.lock();
+      try {
+        active--;
+      } finally {
+        lock.unlock();
+      }
+      destroy(database);
+    }
+  }
+
+  private ODatabaseDocumentTx open() throws SQLException {
+    boolean opened = false;
+    try {
+      final ODatabaseDocumentTx database = new ODatabaseDocumentTx(dbUrl);
+      database.open(username, password);
+      opened = true;
+      return database;
+    } catch (OException e) {
+      throw new SQLException("Error on opening a connection to " + dbUrl, "08001", e);
+    } finally {
+      lock.lock();
+      try {
+        opening--;
+        if (opened)
+          active++;
+        else
+          available.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Gives back the session of a closed connection.
+   */
+  void release(final ODatabaseDocumentTx database) {
+    if (!database.isClosed()) {
+      // THE NEXT BORROWER MUST NOT GET THE RECORDS CACHED BY THIS ONE
+      database.activateOnCurrentThread();
+      database.getLocalCache().clear();
+    }
+
+    lock.lock();
+    try {
+      active--;
+      if (!closed && !database.isClosed() && idle.size() < maxIdle) {
+        idle.addFirst(new IdleSession(database));
+        available.signal();
+        return;
+      }
+      available.signal();
+    } finally {
+      lock.unlock();
+    }
+    destroy(database);
+  }
+
+  /**
+   * Closes the idle sessions. The sessions in use are closed as soon as they are given back.
+   */
+  void close() {
+    final List<IdleSession> sessions;
+    lock.lock();
+    try {
+      if (evictor != null)
+        evictor.cancel();
+      closed = true;
+      sessions = new ArrayList<IdleSession>(idle);
+      idle.clear();
+      available.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    for (IdleSession session : sessions)
+      destroy(session.database);
+  }
+
+  /**
+   * Closes the sessions idle for too long at the time <code>now</code> and opens new ones up to <code>minIdle</code>.
+   */
+  void evict(final long now) {
+    final List<IdleSession> expired = new ArrayList<IdleSession>();
+    int missing;
+    lock.lock();
+    try {
+      if (closed)
+        return;
+      if (idleTimeout > 0) {
+        // THE LEAST RECENTLY USED SESSIONS ARE AT THE END OF THE QUEUE
+        for (Iterator<IdleSession> it = idle.descendingIterator(); it.hasNext() && idle.size() > minIdle;) {
+          final IdleSession session = it.next();
+          if (now - session.since > idleTimeout) {
+            it.remove();
+            expired.add(session);
+          }
+        }
+      }
+      missing = Math.min(minIdle - idle.size(), maxSize - active - opening - idle.size());
+      if (missing > 0)
+        opening += missing;
+    } finally {
+      lock.unlock();
+    }
+
+    for (IdleSession session : expired)
+      destroy(session.database);
+
+    for (; missing > 0; missing--) {
+      ODatabaseDocumentTx database = null;
+      try {
+        database = new ODatabaseDocumentTx(dbUrl);
+        database.open(username, password);
+      } catch (OException e) {
+        database = null;
+      }
+      lock.lock();
+      try {
+        opening--;
+        if (database != null && !closed) {
+          idle.addLast(new IdleSession(database));
+          database = null;
+        }
+        available.signal();
+      } finally {
+        lock.unlock();
+      }
+      if (database != null)
+        destroy(database);
+    }
+  }
+
+  int getActive() {
+    lock.lock();
+    try {
+      return active;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getIdle() {
+    lock.lock();
+    try {
+      return idle.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getWaiting() {
+    lock.lock();
+    try {
+      return waiting;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  long[] getBorrowLatencies() {
+    lock.lock();
+    try {
+      return latencies.clone();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Checks a session with a request to its storage, that is a round trip to the server on a remote database.
+   */
+  private boolean isValid(final ODatabaseDocumentTx database) {
+    try {
+      if (database.isClosed() || database.getStorage().isClosed())
+        return false;
+      database.activateOnCurrentThread();
+      database.getSize();
+      return true;
+    } catch (OException e) {
+      return false;
+    }
+  }
+
+  private void destroy(final ODatabaseDocumentTx database) {
+    try {
+      database.activateOnCurrentThread();
+      database.close();
+    } catch (OException e) {
+      // THE SESSION IS DISCARDED ANYWAY
+    }
+  }
+
+  private static class IdleSession {
+    private final ODatabaseDocumentTx database;
+    private final long                since;
+
+    IdleSession(final ODatabaseDocumentTx iDatabase) {
+      database = iDatabase;
+      since = System.currentTimeMillis();
+    }
+  }
+}
@@ -19,15 +19,13 @@ package com.orientechnologies.orient.jdbc;
 
 import com.orientechnologies.orient.core.OConstants;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
-import com.orientechnologies.orient.core.index.OIndex;
-import com.orientechnologies.orient.core.index.OIndexUnique;
 import com.orientechnologies.orient.core.metadata.OMetadata;
 import com.orientechnologies.orient.core.metadata.function.OFunction;
-import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OClass.INDEX_TYPE;
-import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.metadata.schema.OType;
-import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.jdbc.OrientJdbcMetaDataSnapshot.Column;
+import com.orientechnologies.orient.jdbc.OrientJdbcMetaDataSnapshot.Index;
+import com.orientechnologies.orient.jdbc.OrientJdbcMetaDataSnapshot.Table;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -37,10 +35,9 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * @author Roberto Franchini (CELI srl - franchini--at--celi.it)
@@ -48,10 +45,31 @@ import java.util.Set;
  * @author Luca Garulli (Orient Technologies - l.garulli--at--orientechnologies.com)
  */
 public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
-  protected final static List<String> TABLE_TYPES = Arrays.asList("TABLE", "SYSTEM TABLE");
-  private final OrientJdbcConnection  connection;
-  private final ODatabaseDocument     database;
-  private final OMetadata             metadata;
+  protected final static List<String>   TABLE_TYPES     = Arrays.asList("TABLE", "SYSTEM TABLE");
+  private static final OrientJdbcTuples TABLE_TYPE_ROWS = new OrientJdbcTuples("TABLE_TYPE").add("TABLE").add("SYSTEM TABLE");
+  private static final OrientJdbcTuples TYPE_INFO_ROWS  = new OrientJdbcTuples("TYPE_NAME", "DATA_TYPE", "NULLABLE",
+                                                            "CASE_SENSITIVE", "UNSIGNED_ATTRIBUTE", "SEARCHABLE");
+  private final OrientJdbcConnection    connection;
+  private final ODatabaseDocument       database;
+  private final OMetadata               metadata;
+
+  static {
+    TYPE_INFO_ROWS.add(OType.BINARY.toString(), Types.BINARY, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.BOOLEAN.toString(), Types.BOOLEAN, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.BYTE.toString(), Types.TINYINT, typeNullable, true, true, true);
+    TYPE_INFO_ROWS.add(OType.DATE.toString(), Types.DATE, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.DATETIME.toString(), Types.DATE, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.DECIMAL.toString(), Types.DECIMAL, typeNullable, true, false, true);
+    TYPE_INFO_ROWS.add(OType.FLOAT.toString(), Types.FLOAT, typeNullable, true, false, true);
+    TYPE_INFO_ROWS.add(OType.DOUBLE.toString(), Types.DOUBLE, typeNullable, true, false, true);
+    TYPE_INFO_ROWS.add(OType.EMBEDDED.toString(), Types.STRUCT, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.EMBEDDEDLIST.toString(), Types.ARRAY, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.INTEGER.toString(), Types.INTEGER, typeNullable, true, false, true);
+    TYPE_INFO_ROWS.add(OType.LINKLIST.toString(), Types.ARRAY, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.LONG.toString(), Types.BIGINT, typeNullable, true, false, true);
+    TYPE_INFO_ROWS.add(OType.STRING.toString(), Types.VARCHAR, typeNullable, true, null, true);
+    TYPE_INFO_ROWS.add(OType.SHORT.toString(), Types.SMALLINT, typeNullable, true, false, true);
+  }
 
   public OrientJdbcDatabaseMetaData(OrientJdbcConnection iConnection, ODatabaseDocument iDatabase) {
     connection = iConnection;
@@ -111,11 +129,7 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
   }
 
   public ResultSet getCatalogs() throws SQLException {
-    final List<ODocument> records = new ArrayList<ODocument>();
-    records.add(new ODocument().field("TABLE_CAT", database.getName()));
-
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(new OrientJdbcTuples("TABLE_CAT").add(database.getName()));
   }
 
   public ResultSet getClientInfoProperties() throws SQLException {
@@ -130,31 +144,33 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
 
   public ResultSet getColumns(final String catalog, final String schemaPattern, final String tableNamePattern,
       final String columnNamePattern) throws SQLException {
-    final List<ODocument> records = new ArrayList<ODocument>();
-    final OClass clazz = database.getMetadata().getSchema().getClass(tableNamePattern);
-    if (clazz != null) {
-      if (columnNamePattern == null) {
-        for (OProperty prop : clazz.properties()) {
-          records.add(getPropertyAsDocument(clazz, prop));
-        }
-      } else {
-        final OProperty prop = clazz.getProperty(columnNamePattern);
-        if (prop != null) {
-          records.add(getPropertyAsDocument(clazz, prop));
-        }
+    final OrientJdbcTuples records = new OrientJdbcTuples("TABLE_CAT", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "TYPE_NAME",
+        "COLUMN_SIZE", "NULLABLE", "IS_NULLABLE");
+    // THE COLUMN PATTERN IS COMPILED ONCE FOR ALL THE MATCHING TABLES
+    final Pattern columnPattern = OrientJdbcMetaDataSnapshot.compile(columnNamePattern);
+    for (Table table : getSnapshot().getTables(tableNamePattern)) {
+      for (Column column : table.getColumns(columnPattern)) {
+        final OType type = column.type;
+        records.add(database.getName(), table.name, column.name, OrientJdbcResultSetMetaData.getSqlType(type), type.name(), 1,
+            !column.notNull ? columnNoNulls : columnNullable, column.notNull ? "NO" : "YES");
       }
     }
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
+  }
+
+  /**
+   * Returns a result set of rows computed by the driver, on a statement of its own that is never executed.
+   */
+  private ResultSet newResultSet(final OrientJdbcTuples rows) throws SQLException {
+    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), rows, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+        ResultSet.HOLD_CURSORS_OVER_COMMIT);
   }
 
-  private ODocument getPropertyAsDocument(final OClass clazz, final OProperty prop) {
-    final OType type = prop.getType();
-    return new ODocument().field("TABLE_CAT", database.getName()).field("TABLE_NAME", clazz.getName())
-        .field("COLUMN_NAME", prop.getName()).field("DATA_TYPE", OrientJdbcResultSetMetaData.getSqlType(type))
-        .field("TYPE_NAME", type.name()).field("COLUMN_SIZE", 1)
-        .field("NULLABLE", !prop.isNotNull() ? columnNoNulls : columnNullable)
-        .field("IS_NULLABLE", prop.isNotNull() ? "NO" : "YES");
+  /**
+   * Returns the snapshot of the classes and indexes of the database, taken again only when they change.
+   */
+  private OrientJdbcMetaDataSnapshot getSnapshot() {
+    return OrientJdbcMetaDataSnapshot.of(connection.getDatabase());
   }
 
   public Connection getConnection() throws SQLException {
@@ -213,55 +229,27 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
 
   public ResultSet getFunctionColumns(String catalog, String schemaPattern, String functionNamePattern, String columnNamePattern)
       throws SQLException {
-    final List<ODocument> records = new ArrayList<ODocument>();
+    final OrientJdbcTuples records = new OrientJdbcTuples("FUNCTION_CAT", "FUNCTION_SCHEM", "FUNCTION_NAME", "COLUMN_NAME",
+        "COLUMN_TYPE", "DATA_TYPE", "SPECIFIC_NAME");
 
     final OFunction f = metadata.getFunctionLibrary().getFunction(functionNamePattern);
 
-    for (String p : f.getParameters()) {
-      final ODocument doc = new ODocument();
-      doc.field("FUNCTION_CAT", (Object) null);
-      doc.field("FUNCTION_SCHEM", (Object) null);
-      doc.field("FUNCTION_NAME", f.getName());
-      doc.field("COLUMN_NAME", p);
-      doc.field("COLUMN_TYPE", procedureColumnIn);
-      doc.field("DATA_TYPE", java.sql.Types.OTHER);
-      doc.field("SPECIFIC_NAME", f.getName());
-
-      records.add(doc);
-    }
-
-    final ODocument doc = new ODocument();
-    doc.field("FUNCTION_CAT", (Object) null);
-    doc.field("FUNCTION_SCHEM", (Object) null);
-    doc.field("FUNCTION_NAME", f.getName());
-    doc.field("COLUMN_NAME", "return");
-    doc.field("COLUMN_TYPE", procedureColumnReturn);
-    doc.field("DATA_TYPE", java.sql.Types.OTHER);
-    doc.field("SPECIFIC_NAME", f.getName());
+    for (String p : f.getParameters())
+      records.add(null, null, f.getName(), p, procedureColumnIn, java.sql.Types.OTHER, f.getName());
 
-    records.add(doc);
+    records.add(null, null, f.getName(), "return", procedureColumnReturn, java.sql.Types.OTHER, f.getName());
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public ResultSet getFunctions(String catalog, String schemaPattern, String functionNamePattern) throws SQLException {
-    final List<ODocument> records = new ArrayList<ODocument>();
-
-    for (String fName : metadata.getFunctionLibrary().getFunctionNames()) {
-      final ODocument doc = new ODocument();
-      doc.field("FUNCTION_CAT", (Object) null);
-      doc.field("FUNCTION_SCHEM", (Object) null);
-      doc.field("FUNCTION_NAME", fName);
-      doc.field("REMARKS", "");
-      doc.field("FUNCTION_TYPE", procedureResultUnknown);
-      doc.field("SPECIFIC_NAME", fName);
-
-      records.add(doc);
-    }
+    final OrientJdbcTuples records = new OrientJdbcTuples("FUNCTION_CAT", "FUNCTION_SCHEM", "FUNCTION_NAME", "REMARKS",
+        "FUNCTION_TYPE", "SPECIFIC_NAME");
+
+    for (String fName : metadata.getFunctionLibrary().getFunctionNames())
+      records.add(null, null, fName, "", procedureResultUnknown, fName);
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public String getIdentifierQuoteString() throws SQLException {
@@ -274,37 +262,21 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
 
   public ResultSet getIndexInfo(String catalog, String schema, String table, boolean unique, boolean approximate)
       throws SQLException {
-    if (!approximate)
-      metadata.getIndexManager().reload();
+    final List<Index> indexes = new ArrayList<Index>();
 
-    final Set<OIndex<?>> classIndexes = metadata.getIndexManager().getClassIndexes(table);
-
-    final Set<OIndex<?>> indexes = new HashSet<OIndex<?>>();
-
-    for (OIndex<?> oIndex : classIndexes) {
-      if (!unique || oIndex.getType().equals(INDEX_TYPE.UNIQUE.name()))
-        indexes.add(oIndex);
+    for (Index index : getClassIndexes(table)) {
+      if (!unique || index.unique)
+        indexes.add(index);
     }
 
-    final List<ODocument> records = new ArrayList<ODocument>();
-
-    for (OIndex<?> idx : indexes) {
-      ODocument doc = new ODocument();
-      doc.field("TABLE_NAME", table);
-      final String fieldNames = idx.getDefinition().getFields().toString();
-      doc.field("COLUMN_NAME", fieldNames.substring(1, fieldNames.length() - 2));
-      doc.field("NON_UNIQUE", idx instanceof OIndexUnique);
-      doc.field("INDEX_NAME", idx.getName());
-      doc.field("ASC_OR_DESC", "ASC");
+    final OrientJdbcTuples records = new OrientJdbcTuples("TABLE_NAME", "COLUMN_NAME", "NON_UNIQUE", "INDEX_NAME", "ASC_OR_DESC");
 
-      records.add(doc);
+    for (Index idx : indexes) {
+      final String fieldNames = idx.fields.toString();
+      records.add(table, fieldNames.substring(1, fieldNames.length() - 2), !idx.unique, idx.name, "ASC");
     }
 
-    final OrientJdbcStatement iOrientJdbcStatement = new OrientJdbcStatement(connection);
-
-    final ResultSet result = new OrientJdbcResultSet(iOrientJdbcStatement, records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
-    return result;
+    return newResultSet(records);
   }
 
   public int getJDBCMajorVersion() throws SQLException {
@@ -417,72 +389,45 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
   }
 
   public ResultSet getPrimaryKeys(final String catalog, final String schema, final String table) throws SQLException {
-    final Set<OIndex<?>> classIndexes = metadata.getIndexManager().getClassIndexes(table);
-
-    final Set<OIndex<?>> uniqueIndexes = new HashSet<OIndex<?>>();
+    final List<Index> uniqueIndexes = new ArrayList<Index>();
 
-    for (OIndex<?> oIndex : classIndexes) {
-      if (oIndex.getType().equals(INDEX_TYPE.UNIQUE.name()))
-        uniqueIndexes.add(oIndex);
+    for (Index index : getClassIndexes(table)) {
+      if (index.type.equals(INDEX_TYPE.UNIQUE.name()))
+        uniqueIndexes.add(index);
     }
 
-    final List<ODocument> records = new ArrayList<ODocument>();
+    final OrientJdbcTuples records = new OrientJdbcTuples("TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "KEY_SEQ",
+        "PK_NAME");
 
-    for (OIndex<?> unique : uniqueIndexes) {
+    for (Index unique : uniqueIndexes) {
       int keyFiledSeq = 1;
-      for (String keyFieldName : unique.getDefinition().getFields()) {
-        ODocument doc = new ODocument();
-        doc.field("TABLE_CAT", catalog);
-        doc.field("TABLE_SCHEM", catalog);
-        doc.field("TABLE_NAME", table);
-        doc.field("COLUMN_NAME", keyFieldName);
-        doc.field("KEY_SEQ", Integer.valueOf(keyFiledSeq), OType.INTEGER);
-        doc.field("PK_NAME", unique.getName());
+      for (String keyFieldName : unique.fields) {
+        records.add(catalog, catalog, table, keyFieldName, Integer.valueOf(keyFiledSeq), unique.name);
         keyFiledSeq++;
-
-        records.add(doc);
       }
     }
 
-    final OrientJdbcStatement iOrientJdbcStatement = new OrientJdbcStatement(connection);
+    return newResultSet(records);
+  }
 
-    final ResultSet result = new OrientJdbcResultSet(iOrientJdbcStatement, records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
-    return result;
+  private List<Index> getClassIndexes(final String table) {
+    final Table cls = getSnapshot().getTable(table);
+    return cls != null ? cls.indexes : Collections.<Index> emptyList();
   }
 
   public ResultSet getProcedureColumns(String catalog, String schemaPattern, String procedureNamePattern, String columnNamePattern)
       throws SQLException {
-    final List<ODocument> records = new ArrayList<ODocument>();
+    final OrientJdbcTuples records = new OrientJdbcTuples("PROCEDURE_CAT", "PROCEDURE_SCHEM", "PROCEDURE_NAME", "COLUMN_NAME",
+        "COLUMN_TYPE", "DATA_TYPE", "SPECIFIC_NAME");
 
     final OFunction f = metadata.getFunctionLibrary().getFunction(procedureNamePattern);
 
-    for (String p : f.getParameters()) {
-      final ODocument doc = new ODocument();
-      doc.field("PROCEDURE_CAT", (Object) null);
-      doc.field("PROCEDURE_SCHEM", (Object) null);
-      doc.field("PROCEDURE_NAME", f.getName());
-      doc.field("COLUMN_NAME", p);
-      doc.field("COLUMN_TYPE", procedureColumnIn);
-      doc.field("DATA_TYPE", java.sql.Types.OTHER);
-      doc.field("SPECIFIC_NAME", f.getName());
-
-      records.add(doc);
-    }
-
-    final ODocument doc = new ODocument();
-    doc.field("PROCEDURE_CAT", (Object) null);
-    doc.field("PROCEDURE_SCHEM", (Object) null);
-    doc.field("PROCEDURE_NAME", f.getName());
-    doc.field("COLUMN_NAME", "return");
-    doc.field("COLUMN_TYPE", procedureColumnReturn);
-    doc.field("DATA_TYPE", java.sql.Types.OTHER);
-    doc.field("SPECIFIC_NAME", f.getName());
+    for (String p : f.getParameters())
+      records.add(null, null, f.getName(), p, procedureColumnIn, java.sql.Types.OTHER, f.getName());
 
-    records.add(doc);
+    records.add(null, null, f.getName(), "return", procedureColumnReturn, java.sql.Types.OTHER, f.getName());
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public String getProcedureTerm() throws SQLException {
@@ -490,22 +435,13 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
   }
 
   public ResultSet getProcedures(String catalog, String schemaPattern, String procedureNamePattern) throws SQLException {
-    final List<ODocument> records = new ArrayList<ODocument>();
-
-    for (String fName : metadata.getFunctionLibrary().getFunctionNames()) {
-      final ODocument doc = new ODocument();
-      doc.field("PROCEDURE_CAT", (Object) null);
-      doc.field("PROCEDURE_SCHEM", (Object) null);
-      doc.field("PROCEDURE_NAME", fName);
-      doc.field("REMARKS", "");
-      doc.field("PROCEDURE_TYPE", procedureResultUnknown);
-      doc.field("SPECIFIC_NAME", fName);
-
-      records.add(doc);
-    }
+    final OrientJdbcTuples records = new OrientJdbcTuples("PROCEDURE_CAT", "PROCEDURE_SCHEM", "PROCEDURE_NAME", "REMARKS",
+        "PROCEDURE_TYPE", "SPECIFIC_NAME");
+
+    for (String fName : metadata.getFunctionLibrary().getFunctionNames())
+      records.add(null, null, fName, "", procedureResultUnknown, fName);
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public int getResultSetHoldability() throws SQLException {
@@ -535,11 +471,7 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
   }
 
   public ResultSet getSchemas() throws SQLException {
-    final List<ODocument> records = new ArrayList<ODocument>();
-    records.add(new ODocument().field("TABLE_SCHEM", database.getName()).field("TABLE_CATALOG", database.getName()));
-
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(new OrientJdbcTuples("TABLE_SCHEM", "TABLE_CATALOG").add(database.getName(), database.getName()));
   }
 
   public ResultSet getSchemas(String catalog, String schemaPattern) throws SQLException {
@@ -548,8 +480,7 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
   }
 
   public String getSearchStringEscape() throws SQLException {
-
-    return null;
+    return "\\";
   }
 
   public String getStringFunctions() throws SQLException {
@@ -559,41 +490,25 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
 
   public ResultSet getSuperTables(final String catalog, final String schemaPattern, final String tableNamePattern)
       throws SQLException {
-    final OClass cls = database.getMetadata().getSchema().getClass(tableNamePattern);
-    final List<ODocument> records = new ArrayList<ODocument>();
-
-    if (cls != null && cls.getSuperClass() != null) {
-      final ODocument doc = new ODocument();
-      doc.field("TABLE_CAT", catalog);
-      doc.field("TABLE_SCHEM", catalog);
-      doc.field("TABLE_NAME", cls.getName());
-      doc.field("SUPERTABLE_CAT", catalog);
-      doc.field("SUPERTABLE_SCHEM", catalog);
-      doc.field("SUPERTABLE_NAME", cls.getSuperClass().getName());
-      records.add(doc);
-    }
+    final Table cls = getSnapshot().getTable(tableNamePattern);
+    final OrientJdbcTuples records = new OrientJdbcTuples("TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "SUPERTABLE_CAT",
+        "SUPERTABLE_SCHEM", "SUPERTABLE_NAME");
+
+    if (cls != null && cls.superName != null)
+      records.add(catalog, catalog, cls.name, catalog, catalog, cls.superName);
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public ResultSet getSuperTypes(String catalog, String schemaPattern, String typeNamePattern) throws SQLException {
-    final OClass cls = database.getMetadata().getSchema().getClass(typeNamePattern);
-    final List<ODocument> records = new ArrayList<ODocument>();
-
-    if (cls != null && cls.getSuperClass() != null) {
-      final ODocument doc = new ODocument();
-      doc.field("TABLE_CAT", catalog);
-      doc.field("TABLE_SCHEM", catalog);
-      doc.field("TABLE_NAME", cls.getName());
-      doc.field("SUPERTYPE_CAT", catalog);
-      doc.field("SUPERTYPE_SCHEM", catalog);
-      doc.field("SUPERTYPE_NAME", cls.getSuperClass().getName());
-      records.add(doc);
-    }
+    final Table cls = getSnapshot().getTable(typeNamePattern);
+    final OrientJdbcTuples records = new OrientJdbcTuples("TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "SUPERTYPE_CAT",
+        "SUPERTYPE_SCHEM", "SUPERTYPE_NAME");
+
+    if (cls != null && cls.superName != null)
+      records.add(catalog, catalog, cls.name, catalog, catalog, cls.superName);
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public String getSystemFunctions() throws SQLException {
@@ -607,48 +522,25 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
   }
 
   public ResultSet getTableTypes() throws SQLException {
-
-    OrientJdbcStatement stmt = new OrientJdbcStatement(connection);
-
-    List<ODocument> records = new ArrayList<ODocument>();
-    for (String tableType : TABLE_TYPES) {
-      records.add(new ODocument().field("TABLE_TYPE", tableType));
-    }
-
-    ResultSet result = new OrientJdbcResultSet(stmt, records, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
-        ResultSet.HOLD_CURSORS_OVER_COMMIT);
-
-    return result;
+    return newResultSet(TABLE_TYPE_ROWS);
   }
 
   public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern, String[] types) throws SQLException {
-    final Collection<OClass> classes = database.getMetadata().getSchema().getClasses();
-    final List<ODocument> records = new ArrayList<ODocument>();
+    final OrientJdbcTuples records = new OrientJdbcTuples("TABLE_CAT", "TABLE_SCHEM", "TABLE_TYPE", "TABLE_NAME", "REMARKS",
+        "TYPE_NAME", "REF_GENERATION");
 
     final List tableTypes = types != null ? Arrays.asList(types) : TABLE_TYPES;
-    for (OClass cls : classes) {
-      final String className = cls.getName();
+    for (Table cls : getSnapshot().getTables(tableNamePattern)) {
       final String type;
-      if (OMetadata.SYSTEM_CLUSTER.contains(cls.getName()))
+      if (cls.system)
         type = "SYSTEM TABLE";
       else
         type = "TABLE";
-      if (tableTypes.contains(type)
-          && (tableNamePattern == null || tableNamePattern.equals("%") || tableNamePattern.equalsIgnoreCase(className))) {
-        final ODocument doc = new ODocument();
-        doc.field("TABLE_CAT", (Object) null);
-        doc.field("TABLE_SCHEM", (Object) null);
-        doc.field("TABLE_TYPE", type);
-        doc.field("TABLE_NAME", className);
-        doc.field("REMARKS", (Object) null);
-        doc.field("TYPE_NAME", (Object) null);
-        doc.field("REF_GENERATION", (Object) null);
-        records.add(doc);
-      }
+      if (tableTypes.contains(type))
+        records.add(null, null, type, cls.name, null, null, null);
     }
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public String getTimeDateFunctions() throws SQLException {
@@ -656,68 +548,17 @@ public class OrientJdbcDatabaseMetaData implements DatabaseMetaData {
   }
 
   public ResultSet getTypeInfo() throws SQLException {
-    final List<ODocument> info = new ArrayList<ODocument>();
-
-    info.add(new ODocument().field("TYPE_NAME", OType.BINARY.toString()).field("DATA_TYPE", Types.BINARY)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.BOOLEAN.toString()).field("DATA_TYPE", Types.BOOLEAN)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.BYTE.toString()).field("DATA_TYPE", Types.TINYINT)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("UNSIGNED_ATTRIBUTE", true)
-        .field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.DATE.toString()).field("DATA_TYPE", Types.DATE)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.DATETIME.toString()).field("DATA_TYPE", Types.DATE)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.DECIMAL.toString()).field("DATA_TYPE", Types.DECIMAL)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("UNSIGNED_ATTRIBUTE", false)
-        .field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.FLOAT.toString()).field("DATA_TYPE", Types.FLOAT)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("UNSIGNED_ATTRIBUTE", false)
-        .field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.DOUBLE.toString()).field("DATA_TYPE", Types.DOUBLE)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("UNSIGNED_ATTRIBUTE", false)
-        .field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.EMBEDDED.toString()).field("DATA_TYPE", Types.STRUCT)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.EMBEDDEDLIST.toString()).field("DATA_TYPE", Types.ARRAY)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.INTEGER.toString()).field("DATA_TYPE", Types.INTEGER)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("UNSIGNED_ATTRIBUTE", false)
-        .field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.LINKLIST.toString()).field("DATA_TYPE", Types.ARRAY)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.LONG.toString()).field("DATA_TYPE", Types.BIGINT)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("UNSIGNED_ATTRIBUTE", false)
-        .field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.STRING.toString()).field("DATA_TYPE", Types.VARCHAR)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("SEARCHABLE", true));
-    info.add(new ODocument().field("TYPE_NAME", OType.SHORT.toString()).field("DATA_TYPE", Types.SMALLINT)
-        .field("NULLABLE", DatabaseMetaData.typeNullable).field("CASE_SENSITIVE", true).field("UNSIGNED_ATTRIBUTE", false)
-        .field("SEARCHABLE", true));
-
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), info, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(TYPE_INFO_ROWS);
   }
 
   public ResultSet getUDTs(String catalog, String schemaPattern, String typeNamePattern, int[] types) throws SQLException {
-    final Collection<OClass> classes = database.getMetadata().getSchema().getClasses();
-    final List<ODocument> records = new ArrayList<ODocument>();
-
-    for (OClass cls : classes) {
-      final ODocument doc = new ODocument();
-      doc.field("TYPE_CAT", (Object) null);
-      doc.field("TYPE_SCHEM", (Object) null);
-      doc.field("TYPE_NAME", cls.getName());
-      doc.field("CLASS_NAME", cls.getName());
-      doc.field("DATA_TYPE", java.sql.Types.STRUCT);
-      doc.field("REMARKS", (Object) null);
-      records.add(doc);
+    final OrientJdbcTuples records = new OrientJdbcTuples("TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "CLASS_NAME", "DATA_TYPE",
+        "REMARKS");
 
-    }
+    for (Table cls : getSnapshot().getTables())
+      records.add(null, null, cls.name, cls.name, java.sql.Types.STRUCT, null);
 
-    return new OrientJdbcResultSet(new OrientJdbcStatement(connection), records, ResultSet.TYPE_FORWARD_ONLY,
-        ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+    return newResultSet(records);
   }
 
   public String getURL() throws SQLException {
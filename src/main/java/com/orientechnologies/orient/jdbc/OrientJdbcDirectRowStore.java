@@ -0,0 +1,67 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Row store in direct buffers allocated out of the heap, in segments of a fixed size that rows can span. The segments are dropped
+ * when the result set is closed, but their memory is released only when the buffers are garbage collected.
+ */
+final class OrientJdbcDirectRowStore extends OrientJdbcRowStore {
+
+  private static final int       SEGMENT_SIZE = 256 * 1024;
+
+  private final List<ByteBuffer> segments     = new ArrayList<ByteBuffer>();
+
+  @Override
+  protected void write(long position, final ByteBuffer row) {
+    while (row.hasRemaining()) {
+      final int index = (int) (position / SEGMENT_SIZE);
+      if (index == segments.size())
+        segments.add(ByteBuffer.allocateDirect(SEGMENT_SIZE));
+
+      final ByteBuffer segment = segments.get(index).duplicate();
+      segment.position((int) (position % SEGMENT_SIZE));
+      // COPY UP TO THE END OF THE SEGMENT, THE REST OF THE ROW GOES TO THE NEXT ONE
+      final ByteBuffer piece = row.duplicate();
+      piece.limit(row.position() + Math.min(row.remaining(), segment.remaining()));
+      segment.put(piece);
+      position += piece.position() - row.position();
+      row.position(piece.position());
+    }
+  }
+
+  @Override
+  protected void read(long position, final ByteBuffer row) {
+    while (row.hasRemaining()) {
+      final ByteBuffer segment = segments.get((int) (position / SEGMENT_SIZE)).duplicate();
+      segment.position((int) (position % SEGMENT_SIZE));
+      segment.limit(segment.position() + Math.min(row.remaining(), segment.remaining()));
+      position += segment.remaining();
+      row.put(segment);
+    }
+  }
+
+  @Override
+  void close() {
+    segments.clear();
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.SQLException;
+
+/**
+ * Row store in a temporary file, deleted when the result set is closed, or at the latest when its connection is closed.
+ */
+final class OrientJdbcFileRowStore extends OrientJdbcRowStore {
+
+  private final File        file;
+  private final FileChannel channel;
+
+  OrientJdbcFileRowStore() throws SQLException {
+    try {
+      file = File.createTempFile("orientdb-rows", ".tmp");
+      channel = new RandomAccessFile(file, "rw").getChannel();
+    } catch (IOException e) {
+      throw new SQLException("The file of the rows of the result set cannot be created", e);
+    }
+  }
+
+  @Override
+  protected void write(long position, final ByteBuffer row) throws IOException {
+    while (row.hasRemaining())
+      position += channel.write(row, position);
+  }
+
+  @Override
+  protected void read(long position, final ByteBuffer row) throws IOException {
+    while (row.hasRemaining()) {
+      final int read = channel.read(row, position);
+      if (read < 0)
+        throw new IOException("Unexpected end of " + file + " at " + position);
+      position += read;
+    }
+  }
+
+  @Override
+  void close() throws SQLException {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new SQLException("The file of the rows of the result set cannot be closed", e);
+    } finally {
+      file.delete();
+    }
+  }
+}
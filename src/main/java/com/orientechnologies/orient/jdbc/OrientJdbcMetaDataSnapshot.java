@@ -0,0 +1,258 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.index.OIndexManager;
+import com.orientechnologies.orient.core.metadata.OMetadata;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OClass.INDEX_TYPE;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.storage.OStorage;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable copy of the classes, properties and indexes of a database, shared by all the connections to the same database URL.
+ * Database metadata calls read the copy instead of walking the schema and the index manager every time. A snapshot is taken again
+ * as soon as the version of the schema or of the index manager changes.
+ */
+final class OrientJdbcMetaDataSnapshot {
+
+  private static final Map<String, OrientJdbcMetaDataSnapshot> SNAPSHOTS =
+                                                                             new ConcurrentHashMap<String, OrientJdbcMetaDataSnapshot>();
+
+  private final WeakReference<OStorage>                        storage;
+  private final int                                            schemaVersion;
+  private final int                                            indexVersion;
+  private final List<Table>                                    tables;
+  private final Map<String, Table>                             tablesByName;
+
+  private OrientJdbcMetaDataSnapshot(final OStorage iStorage, final int iSchemaVersion, final int iIndexVersion,
+      final OSchema schema, final OIndexManager indexManager) {
+    storage = new WeakReference<OStorage>(iStorage);
+    schemaVersion = iSchemaVersion;
+    indexVersion = iIndexVersion;
+
+    final Map<String, List<Index>> indexes = new HashMap<String, List<Index>>();
+    for (OIndex<?> index : indexManager.getIndexes()) {
+      final OIndexDefinition definition = index.getDefinition();
+      if (definition == null || definition.getClassName() == null)
+        continue;
+
+      final String className = definition.getClassName().toLowerCase(Locale.ENGLISH);
+      List<Index> classIndexes = indexes.get(className);
+      if (classIndexes == null) {
+        classIndexes = new ArrayList<Index>();
+        indexes.put(className, classIndexes);
+      }
+      classIndexes.add(new Index(index.getName(), index.getType(), definition.getFields(), isUnique(index.getType())));
+    }
+    // JDBC ORDERS KEYS AND INDEXES BY NAME
+    for (List<Index> classIndexes : indexes.values())
+      Collections.sort(classIndexes);
+
+    final Collection<OClass> classes = schema.getClasses();
+    final List<Table> allTables = new ArrayList<Table>(classes.size());
+    tablesByName = new HashMap<String, Table>(classes.size() * 2);
+    for (OClass cls : classes) {
+      final List<Column> columns = new ArrayList<Column>();
+      for (OProperty property : cls.properties())
+        columns.add(new Column(property.getName(), property.getType(), property.isNotNull()));
+
+      final String key = cls.getName().toLowerCase(Locale.ENGLISH);
+      final List<Index> classIndexes = indexes.get(key);
+      // JDBC HAS A SINGLE SUPER TABLE: THE FIRST SUPER CLASS IS REPORTED
+      final List<OClass> superClasses = cls.getSuperClasses();
+      final Table table = new Table(cls.getName(), OMetadata.SYSTEM_CLUSTER.contains(cls.getName()),
+          !superClasses.isEmpty() ? superClasses.get(0).getName() : null, columns,
+          classIndexes != null ? classIndexes : Collections.<Index> emptyList());
+      allTables.add(table);
+      tablesByName.put(key, table);
+    }
+    tables = Collections.unmodifiableList(allTables);
+  }
+
+  /**
+   * Returns the snapshot of the metadata of a database, taking a new one if the schema or the indexes changed since the last one.
+   */
+  static OrientJdbcMetaDataSnapshot of(final ODatabaseDocumentTx database) {
+    final OStorage storage = database.getStorage().getUnderlying();
+    // THE IMMUTABLE SCHEMA CARRIES THE VERSION ITS CLASSES BELONG TO
+    final OImmutableSchema schema = database.getMetadata().getImmutableSchemaSnapshot();
+    final OIndexManager indexManager = database.getMetadata().getIndexManager();
+    final int schemaVersion = schema.getVersion();
+    final int indexVersion = indexManager.getConfiguration().getVersion();
+
+    final String url = database.getURL();
+    OrientJdbcMetaDataSnapshot snapshot = SNAPSHOTS.get(url);
+    if (snapshot == null || snapshot.storage.get() != storage || snapshot.schemaVersion != schemaVersion
+        || snapshot.indexVersion != indexVersion) {
+      snapshot = new OrientJdbcMetaDataSnapshot(storage, schemaVersion, indexVersion, schema, indexManager);
+      SNAPSHOTS.put(url, snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Tells whether the keys of an index of a type are unique. The type is checked instead of the class of the index, which can be a
+   * wrapper of the actual implementation.
+   */
+  private static boolean isUnique(final String type) {
+    return INDEX_TYPE.UNIQUE.name().equals(type) || INDEX_TYPE.UNIQUE_HASH_INDEX.name().equals(type);
+  }
+
+  /**
+   * Returns all the tables, in the order of the schema.
+   */
+  List<Table> getTables() {
+    return tables;
+  }
+
+  /**
+   * Returns a table by name ignoring the case, or <code>null</code> if there is no such table.
+   */
+  Table getTable(final String name) {
+    return name != null ? tablesByName.get(name.toLowerCase(Locale.ENGLISH)) : null;
+  }
+
+  /**
+   * Returns the tables whose name matches a JDBC pattern, in the order of the schema. A name without wildcards is looked up
+   * directly.
+   */
+  List<Table> getTables(final String namePattern) {
+    final Pattern pattern = compile(namePattern);
+    if (pattern == null)
+      return tables;
+    if (isLiteral(namePattern)) {
+      final Table table = getTable(namePattern);
+      return table != null ? Collections.singletonList(table) : Collections.<Table> emptyList();
+    }
+
+    final List<Table> matching = new ArrayList<Table>();
+    for (Table table : tables)
+      if (pattern.matcher(table.name).matches())
+        matching.add(table);
+    return matching;
+  }
+
+  /**
+   * Compiles a JDBC search pattern to a regular expression matching names ignoring the case: <code>%</code> stands for any sequence
+   * of characters and <code>_</code> for any character, unless escaped with a backslash. Returns <code>null</code> when the pattern
+   * matches everything.
+   */
+  static Pattern compile(final String namePattern) {
+    if (namePattern == null || "%".equals(namePattern))
+      return null;
+
+    final StringBuilder regex = new StringBuilder(namePattern.length() + 8);
+    int literal = 0;
+    for (int i = 0; i < namePattern.length(); i++) {
+      final char c = namePattern.charAt(i);
+      if (c == '\\' && i + 1 < namePattern.length()) {
+        regex.append(Pattern.quote(namePattern.substring(literal, i)));
+        literal = ++i;
+      } else if (c == '%' || c == '_') {
+        regex.append(Pattern.quote(namePattern.substring(literal, i))).append(c == '%' ? ".*" : ".");
+        literal = i + 1;
+      }
+    }
+    regex.append(Pattern.quote(namePattern.substring(literal)));
+    return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+  }
+
+  private static boolean isLiteral(final String namePattern) {
+    return namePattern.indexOf('%') < 0 && namePattern.indexOf('_') < 0 && namePattern.indexOf('\\') < 0;
+  }
+
+  static final class Table {
+    final String       name;
+    final boolean      system;
+    final String       superName;
+    final List<Column> columns;
+    final List<Index>  indexes;
+
+    private Table(final String iName, final boolean iSystem, final String iSuperName, final List<Column> iColumns,
+        final List<Index> iIndexes) {
+      name = iName;
+      system = iSystem;
+      superName = iSuperName;
+      columns = Collections.unmodifiableList(iColumns);
+      indexes = Collections.unmodifiableList(iIndexes);
+    }
+
+    /**
+     * Returns the columns whose name matches a pattern compiled with {@link OrientJdbcMetaDataSnapshot#compile(String)}, or all
+     * the columns if the pattern is <code>null</code>.
+     */
+    List<Column> getColumns(final Pattern pattern) {
+      if (pattern == null)
+        return columns;
+
+      final List<Column> matching = new ArrayList<Column>();
+      for (Column column : columns)
+        if (pattern.matcher(column.name).matches())
+          matching.add(column);
+      return matching;
+    }
+  }
+
+  static final class Column {
+    final String  name;
+    final OType   type;
+    final boolean notNull;
+
+    private Column(final String iName, final OType iType, final boolean iNotNull) {
+      name = iName;
+      type = iType;
+      notNull = iNotNull;
+    }
+  }
+
+  static final class Index implements Comparable<Index> {
+    final String       name;
+    final String       type;
+    final List<String> fields;
+    final boolean      unique;
+
+    private Index(final String iName, final String iType, final List<String> iFields, final boolean iUnique) {
+      name = iName;
+      type = iType;
+      fields = Collections.unmodifiableList(new ArrayList<String>(iFields));
+      unique = iUnique;
+    }
+
+    public int compareTo(final Index other) {
+      return name.compareTo(other.name);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+/**
+ * Cursor that reads the records of a class in pages of <code>fetchSize</code> records. Every page re-issues the query restricted
+ * to the records following the last one read:
+ *
+ * <pre>
+ * SELECT FROM &lt;class&gt; WHERE @rid &gt; &lt;last rid&gt; [AND (&lt;condition&gt;)] ORDER BY @rid LIMIT &lt;fetchSize&gt;
+ * </pre>
+ *
+ * so a remote connection never transfers more than one page at a time. When a maximum number of rows is set the last page is
+ * shortened accordingly. Only queries in the form <code>SELECT [*] FROM &lt;class&gt; [WHERE &lt;condition&gt;]</code> can be
+ * paged, see {@link #isPageable(String)}.
+ */
+class OrientJdbcPagedCursor implements OrientJdbcCursor {
+
+  private static final Pattern           PAGEABLE     = Pattern.compile(
+                                                          "^\\s*select\\s+(?:\\*\\s+)?from\\s+(\\w+)(?:\\s+where\\s+(.+?))?\\s*$",
+                                                          Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+  private static final Pattern           NOT_PAGEABLE = Pattern
+                                                          .compile(
+                                                              "\\b(?:order\\s+by|group\\s+by|limit|skip|offset|fetchplan|timeout|lock|parallel|let|unwind|nocache)\\b",
+                                                              Pattern.CASE_INSENSITIVE);
+
+  private final ODatabaseDocumentTx      database;
+  private final String                   className;
+  private final String                   condition;
+  private final Object[]                 params;
+  private final int                      fetchSize;
+  private final int                      maxRows;
+  private final OrientJdbcCommandContext context;
+
+  private Iterator<ODocument>            page         = Collections.<ODocument> emptyList().iterator();
+  private ORID                           lastRid;
+  private boolean                        lastPage;
+  private boolean                        closed;
+  private int                            read;
+
+  OrientJdbcPagedCursor(final ODatabaseDocumentTx iDatabase, final String iSql, final int iFetchSize, final int iMaxRows,
+      final OrientJdbcCommandContext iContext, final Object... iParams) {
+    final Matcher matcher = PAGEABLE.matcher(iSql);
+    if (!matcher.matches())
+      throw new IllegalArgumentException("The query '" + iSql + "' cannot be paged");
+
+    database = iDatabase;
+    className = matcher.group(1);
+    condition = matcher.group(2);
+    fetchSize = iFetchSize;
+    maxRows = iMaxRows;
+    context = iContext;
+    params = iParams;
+  }
+
+  /**
+   * Tells if the query is a plain scan of a class, optionally filtered, that can be split in pages by RID.
+   */
+  static boolean isPageable(final String iSql) {
+    final Matcher matcher = PAGEABLE.matcher(iSql);
+    if (!matcher.matches())
+      return false;
+    return matcher.group(2) == null || !NOT_PAGEABLE.matcher(matcher.group(2)).find();
+  }
+
+  public boolean hasNext() {
+    if (closed)
+      return false;
+    if (!page.hasNext() && !lastPage)
+      fetchPage();
+    return page.hasNext();
+  }
+
+  public ODocument next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    final ODocument document = page.next();
+    lastRid = document.getIdentity();
+    read++;
+    return document;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException("remove");
+  }
+
+  public void close() {
+    closed = true;
+    page = Collections.<ODocument> emptyList().iterator();
+  }
+
+  private void fetchPage() {
+    context.checkCancelled();
+
+    int limit = fetchSize;
+    if (maxRows > 0) {
+      limit = Math.min(limit, maxRows - read);
+      if (limit <= 0) {
+        lastPage = true;
+        return;
+      }
+    }
+
+    final StringBuilder sql = new StringBuilder(64);
+    sql.append("SELECT FROM ").append(className).append(" WHERE @rid > ").append(lastRid != null ? lastRid : "#-1:-1");
+    if (condition != null)
+      sql.append(" AND (").append(condition).append(')');
+    sql.append(" ORDER BY @rid LIMIT ").append(limit);
+
+    final List<ODocument> records = database.query(context.apply(new OSQLSynchQuery<ODocument>(sql.toString())), params);
+    lastPage = records.size() < limit;
+    page = records.iterator();
+  }
+}
@@ -17,23 +17,34 @@
  */
 package com.orientechnologies.orient.jdbc;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandRequest;
-import com.orientechnologies.orient.core.exception.OQueryParsingException;
+import com.orientechnologies.orient.core.command.OCommandRequestAbstract;
+import com.orientechnologies.orient.core.command.OCommandRequestText;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.query.OQuery;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 
+import static java.util.Collections.emptyList;
+
 /**
  * 
  * @author Roberto Franchini (CELI Srl - franchini@celi.it)
@@ -42,99 +53,277 @@ import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
  */
 public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements PreparedStatement {
 
-  private final String               sql;
-  private final Map<Integer, Object> params;
+  private final String              sql;
+  // ONE SLOT PER PLACEHOLDER, PASSED AS IS TO THE COMMANDS
+  private final Object[]            params;
+  private final List<Object[]>      batchParams;
+  // CHUNKS SAVED WHILE STREAM PARAMETERS WERE READ, THAT NO EXECUTION HAS LINKED YET
+  private final List<List<OIdentifiable>> unlinkedChunks;
+  // COMMANDS REUSED BY EVERY EXECUTION
+  private OCommandSQL               command;
+  private OSQLSynchQuery<ODocument> synchQuery;
 
   public OrientJdbcPreparedStatement(OrientJdbcConnection iConnection, String sql) {
-    super(iConnection);
+    this(iConnection, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+  }
+
+  public OrientJdbcPreparedStatement(OrientJdbcConnection iConnection, String sql, int resultSetType, int resultSetConcurrency,
+      int resultSetHoldability) {
+    super(iConnection, resultSetType, resultSetConcurrency, resultSetHoldability);
     this.sql = sql;
-    params = new HashMap<Integer, Object>();
+    params = new Object[countParameters(sql)];
+    batchParams = new ArrayList<Object[]>();
+    unlinkedChunks = new ArrayList<List<OIdentifiable>>();
+    poolable = true;
+  }
+
+  /**
+   * Creates a new statement that takes over the commands of a statement of the same SQL released to the cache of the connection.
+   * The released statement stays closed: whoever still holds it cannot reach the commands of the new one.
+   */
+  OrientJdbcPreparedStatement(OrientJdbcConnection iConnection, OrientJdbcPreparedStatement iReleased, int resultSetType,
+      int resultSetConcurrency, int resultSetHoldability) {
+    super(iConnection, resultSetType, resultSetConcurrency, resultSetHoldability);
+    sql = iReleased.sql;
+    params = new Object[iReleased.params.length];
+    batchParams = new ArrayList<Object[]>();
+    unlinkedChunks = new ArrayList<List<OIdentifiable>>();
+    poolable = true;
+    command = iReleased.command;
+    synchQuery = iReleased.synchQuery;
+    iReleased.command = null;
+    iReleased.synchQuery = null;
+  }
+
+  String getSql() {
+    return sql;
+  }
+
+  /**
+   * Closes the statement. A poolable statement is handed back to the connection, whose next
+   * {@link OrientJdbcConnection#prepareStatement(String)} of the same SQL reuses its commands in a new statement. The chunks of
+   * stream parameters that no execution has linked are deleted.
+   */
+  @Override
+  public void close() throws SQLException {
+    if (closed)
+      return;
+
+    endExecution(false);
+    super.close();
+    Arrays.fill(params, null);
+    batches.clear();
+    batchParams.clear();
+    documents = emptyList();
+    rawResult = null;
+    context = null;
+
+    if (poolable)
+      connection.releaseStatement(this);
   }
 
   @SuppressWarnings("unchecked")
   public ResultSet executeQuery() throws SQLException {
+    checkOpen();
+    closeResultSet();
+    setSchemaColumns(sql);
+
     if (sql.equalsIgnoreCase("select 1")) {
       // OPTIMIZATION
-      documents = new ArrayList<ODocument>();
-      documents.add(new ODocument().field("1", 1));
+      resultSet = new OrientJdbcResultSet(this, SELECT_1, resultSetType, resultSetConcurrency, resultSetHoldability);
+      return resultSet;
+    } else if (isPageable(sql)) {
+      query = new OSQLSynchQuery<ODocument>(sql);
+      // THE PAGES ARE READ LATER: THE PARAMETERS CAN CHANGE IN THE MEANTIME
+      resultSet = executePaged(sql, params.clone());
+      return resultSet;
+    } else if (isStreamable(sql)) {
+      final OSQLAsynchQuery<ODocument> asynchQuery = prepareRequest(new OSQLAsynchQuery<ODocument>(sql));
+      query = asynchQuery;
+      resultSet = executeStreaming(asynchQuery, params.clone());
+      return resultSet;
     } else {
       try {
-        query = new OSQLSynchQuery<ODocument>(sql);
-        documents = database.query((OQuery<? extends Object>) query, params.values().toArray());
-      } catch (OQueryParsingException e) {
-        throw new SQLSyntaxErrorException("Error on parsing the query", e);
+        if (synchQuery == null)
+          synchQuery = new OSQLSynchQuery<ODocument>(sql);
+        else
+          resetRequest(synchQuery).resetPagination();
+        query = prepareRequest(synchQuery);
+        documents = database.query((OQuery<? extends Object>) query, params);
+      } catch (OException e) {
+        throw toSQLException(e);
       }
     }
 
     // return super.executeQuery(sql);
     resultSet = new OrientJdbcResultSet(this, documents, resultSetType, resultSetConcurrency, resultSetHoldability);
+    releaseDocuments();
     return resultSet;
   }
 
   public int executeUpdate() throws SQLException {
-    return this.executeUpdate(sql);
+    checkOpen();
+    boolean linked = false;
+    try {
+      final int count = this.executeUpdate(sql);
+      linked = true;
+      return count;
+    } finally {
+      endExecution(linked);
+    }
   }
 
   @Override
   public <RET> RET executeCommand(OCommandRequest query) {
-    return database.command(query).execute(params.values().toArray());
+    return database.command(query).execute(params);
+  }
+
+  @Override
+  protected OCommandSQL newCommand(final String iSql) {
+    if (!sql.equals(iSql))
+      return super.newCommand(iSql);
+
+    if (command == null)
+      command = super.newCommand(iSql);
+    else
+      resetRequest(command);
+    return command;
+  }
+
+  /**
+   * Ends an execution that could link the chunks of the stream parameters to records. Once linked they are no longer tracked,
+   * otherwise they are deleted and their parameters are unbound, so that the stream must be bound again.
+   */
+  private void endExecution(final boolean linked) throws SQLException {
+    if (!linked)
+      for (List<OIdentifiable> chunks : unlinkedChunks) {
+        deleteChunks(chunks);
+        for (int i = 0; i < params.length; i++)
+          if (params[i] == chunks)
+            params[i] = null;
+      }
+    unlinkedChunks.clear();
+  }
+
+  private void deleteChunks(final List<OIdentifiable> chunks) throws SQLException {
+    // THE SESSION OF A CLOSED CONNECTION CAN BE IN USE BY ANOTHER ONE OF THE POOL
+    if (chunks.isEmpty() || connection.isClosed())
+      return;
+    database.activateOnCurrentThread();
+    for (OIdentifiable chunk : chunks)
+      try {
+        database.delete(chunk.getIdentity());
+      } catch (OException e) {
+        // THE CHUNK IS LEFT IN THE DATABASE: THE ERROR OF THE EXECUTION, IF ANY, IS THE ONE REPORTED
+      }
+  }
+
+  /**
+   * Binds the chunks saved while a stream parameter was read, that are deleted if no execution links them.
+   */
+  private void setStreamedChunks(final int parameterIndex, final List<OIdentifiable> chunks) throws SQLException {
+    final List<OIdentifiable> value = new ArrayList<OIdentifiable>(chunks);
+    setParameter(parameterIndex, value);
+    unlinkedChunks.add(value);
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed)
+      throw new SQLException("Statement already closed");
+  }
+
+  /**
+   * Restores the text and the limit of a reused command, that could have been changed by the max rows of a previous execution.
+   */
+  private <T extends OCommandRequestAbstract & OCommandRequestText> T resetRequest(final T request) {
+    request.setText(sql);
+    request.setLimit(-1);
+    return request;
+  }
+
+  /**
+   * Counts the <code>?</code> placeholders of a statement, skipping the ones in quoted text.
+   */
+  static int countParameters(final String sql) {
+    int count = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == '\\')
+          i++;
+        else if (c == quote)
+          quote = 0;
+      } else if (c == '\'' || c == '"' || c == '`')
+        quote = c;
+      else if (c == '?')
+        count++;
+    }
+    return count;
+  }
+
+  private void setParameter(final int parameterIndex, final Object value) throws SQLException {
+    if (parameterIndex < 1 || parameterIndex > params.length)
+      throw new SQLException("The parameter index " + parameterIndex + " is out of range: the statement has " + params.length
+          + " parameters");
+    params[parameterIndex - 1] = value;
   }
 
   public void setNull(int parameterIndex, int sqlType) throws SQLException {
-    params.put(parameterIndex, null);
+    setParameter(parameterIndex, null);
   }
 
   public void setBoolean(int parameterIndex, boolean x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setByte(int parameterIndex, byte x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
 
   }
 
   public void setShort(int parameterIndex, short x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setInt(int parameterIndex, int x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setLong(int parameterIndex, long x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setFloat(int parameterIndex, float x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setDouble(int parameterIndex, double x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setString(int parameterIndex, String x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setBytes(int parameterIndex, byte[] x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setDate(int parameterIndex, Date x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setTime(int parameterIndex, Time x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
@@ -146,31 +335,140 @@ public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements
   }
 
   public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
-    throw new UnsupportedOperationException();
+    setBlob(parameterIndex, x, length);
   }
 
   public void clearParameters() throws SQLException {
-    params.clear();
+    Arrays.fill(params, null);
   }
 
   public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public void setObject(int parameterIndex, Object x) throws SQLException {
-    params.put(parameterIndex, x);
+    setParameter(parameterIndex, x);
   }
 
   public boolean execute() throws SQLException {
-    return this.execute(sql);
+    checkOpen();
+    boolean linked = false;
+    try {
+      final boolean result = this.execute(sql);
+      linked = true;
+      return result;
+    } finally {
+      endExecution(linked);
+    }
   }
 
   public void addBatch() throws SQLException {
-    throw new UnsupportedOperationException();
+    checkOpen();
+    batchParams.add(params.clone());
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    super.clearBatch();
+    batchParams.clear();
+  }
+
+  /**
+   * Executes the sets of parameters added with {@link #addBatch()} with a single SQL script, in which every set is bound to its own
+   * copy of the statement through named parameters.
+   */
+  @Override
+  public int[] executeBatch() throws SQLException {
+    checkOpen();
+    if (batchParams.isEmpty())
+      return super.executeBatch();
+
+    boolean linked = false;
+    try {
+      final int[] counts = executeBatchParams();
+      linked = true;
+      return counts;
+    } catch (BatchUpdateException e) {
+      // NO ROW IS APPLIED ONLY IF THE FIRST FAILED, OR IF THE SCRIPT RAN IN ITS OWN TRANSACTION
+      linked = e.getUpdateCounts().length > 0 || !connection.getAutoCommit();
+      throw e;
+    } finally {
+      endExecution(linked);
+    }
+  }
+
+  private int[] executeBatchParams() throws SQLException {
+    try {
+      final String line = toScriptLine(sql);
+      if (line == null)
+        return executeBatchOneByOne();
+
+      final List<String> segments = splitAtParameters(line);
+      final List<String> commands = new ArrayList<String>(batchParams.size());
+      final Map<String, Object> namedParams = new HashMap<String, Object>(batchParams.size() * params.length * 2);
+      final StringBuilder command = new StringBuilder(line.length() + params.length * 8);
+      for (int row = 0; row < batchParams.size(); row++) {
+        final Object[] rowParams = batchParams.get(row);
+        command.setLength(0);
+        command.append(segments.get(0));
+        for (int i = 1; i < segments.size(); i++) {
+          final String name = "b" + row + "_" + i;
+          namedParams.put(name, rowParams[i - 1]);
+          command.append(':').append(name).append(segments.get(i));
+        }
+        commands.add(command.toString());
+      }
+      return executeBatchScript(commands, namedParams);
+    } finally {
+      batchParams.clear();
+    }
+  }
+
+  private int[] executeBatchOneByOne() throws SQLException {
+    final Object[] current = params.clone();
+    final int[] results = new int[batchParams.size()];
+    try {
+      for (int i = 0; i < results.length; i++) {
+        System.arraycopy(batchParams.get(i), 0, params, 0, params.length);
+        try {
+          results[i] = executeUpdate(sql);
+        } catch (SQLException e) {
+          throw new BatchUpdateException(e.getMessage(), Arrays.copyOf(results, i), e);
+        }
+      }
+    } finally {
+      System.arraycopy(current, 0, params, 0, params.length);
+    }
+    return results;
+  }
+
+  /**
+   * Splits a statement at its <code>?</code> placeholders, skipping the ones in quoted text.
+   */
+  private static List<String> splitAtParameters(final String sql) {
+    final List<String> segments = new ArrayList<String>();
+    int start = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == '\\')
+          i++;
+        else if (c == quote)
+          quote = 0;
+      } else if (c == '\'' || c == '"' || c == '`')
+        quote = c;
+      else if (c == '?') {
+        segments.add(sql.substring(start, i));
+        start = i + 1;
+      }
+    }
+    segments.add(sql.substring(start));
+    return segments;
   }
 
   public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, reader, length);
   }
 
   public void setRef(int parameterIndex, Ref x) throws SQLException {
@@ -178,11 +476,23 @@ public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements
   }
 
   public void setBlob(int parameterIndex, Blob x) throws SQLException {
-    throw new UnsupportedOperationException();
+    if (x instanceof OrientBlob)
+      setParameter(parameterIndex, new ArrayList<OIdentifiable>(((OrientBlob) x).getChunks()));
+    else if (x != null)
+      setBlob(parameterIndex, x.getBinaryStream(), -1);
+    else
+      setParameter(parameterIndex, null);
   }
 
   public void setClob(int parameterIndex, Clob x) throws SQLException {
-    throw new UnsupportedOperationException();
+    if (x instanceof OrientClob && ((OrientClob) x).getText() != null)
+      setParameter(parameterIndex, ((OrientClob) x).getText());
+    else if (x instanceof OrientClob)
+      setParameter(parameterIndex, new ArrayList<OIdentifiable>(((OrientClob) x).getChunks()));
+    else if (x != null)
+      setClob(parameterIndex, x.getCharacterStream(), -1);
+    else
+      setParameter(parameterIndex, null);
   }
 
   public void setArray(int parameterIndex, Array x) throws SQLException {
@@ -197,67 +507,105 @@ public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements
   }
 
   public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
-    params.put(parameterIndex, new java.util.Date(x.getTime()));
+    setParameter(parameterIndex, new java.util.Date(x.getTime()));
   }
 
   public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
-    params.put(parameterIndex, new java.util.Date(x.getTime()));
+    setParameter(parameterIndex, new java.util.Date(x.getTime()));
   }
 
   public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
-    params.put(parameterIndex, new java.util.Date(x.getTime()));
+    setParameter(parameterIndex, new java.util.Date(x.getTime()));
   }
 
   public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
-    params.put(parameterIndex, null);
+    setParameter(parameterIndex, null);
   }
 
   public void setURL(int parameterIndex, URL x) throws SQLException {
-    params.put(parameterIndex, null);
+    setParameter(parameterIndex, null);
   }
 
   public ParameterMetaData getParameterMetaData() throws SQLException {
     final List<OrientJdbcParameterMetadata.ParameterDefinition> definitions = new ArrayList<OrientJdbcParameterMetadata.ParameterDefinition>();
 
-    int start = 0;
-    int index = sql.indexOf('?', start);
-    while (index > 0) {
+    for (int i = 0; i < params.length; i++) {
       final OrientJdbcParameterMetadata.ParameterDefinition def = new OrientJdbcParameterMetadata.ParameterDefinition();
       // TODO find a way to know a bit more on each parameter
       definitions.add(def);
-      start = index + 1;
-      index = sql.indexOf('?', start);
     }
 
     return new OrientJdbcParameterMetadata(definitions);
   }
 
   public void setRowId(int parameterIndex, RowId x) throws SQLException {
-    params.put(parameterIndex, ((OrientRowId) x).rid);
+    setParameter(parameterIndex, ((OrientRowId) x).rid);
   }
 
   public void setNString(int parameterIndex, String value) throws SQLException {
-    params.put(parameterIndex, value);
+    setParameter(parameterIndex, value);
   }
 
   public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, value, length);
   }
 
   public void setNClob(int parameterIndex, NClob value) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, value);
   }
 
   public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
-    throw new UnsupportedOperationException();
+    if (reader == null) {
+      setParameter(parameterIndex, null);
+      return;
+    }
+
+    // THE TEXT IS ENCODED TO UTF-8 AND SAVED IN CHUNKS WHILE IT IS READ
+    final OrientClob clob = (OrientClob) connection.createClob();
+    final Writer out = clob.setCharacterStream(1);
+    final char[] buffer = new char[8192];
+    long left = length < 0 ? Long.MAX_VALUE : length;
+    try {
+      int read;
+      while (left > 0 && (read = reader.read(buffer, 0, (int) Math.min(buffer.length, left))) != -1) {
+        out.write(buffer, 0, read);
+        left -= read;
+      }
+      out.close();
+    } catch (IOException e) {
+      deleteChunks(clob.getChunks());
+      throw new SQLException("An error occurred during the writing of the CLOB of parameter " + parameterIndex, e);
+    }
+    setStreamedChunks(parameterIndex, clob.getChunks());
   }
 
   public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
-    throw new UnsupportedOperationException();
+    if (inputStream == null) {
+      setParameter(parameterIndex, null);
+      return;
+    }
+
+    // THE STREAM IS SAVED IN CHUNKS WHILE IT IS READ, THE PARAMETER IS THE LIST OF THEIR LINKS
+    final OrientBlob blob = (OrientBlob) connection.createBlob();
+    final OutputStream out = blob.setBinaryStream(1);
+    final byte[] buffer = new byte[8192];
+    long left = length < 0 ? Long.MAX_VALUE : length;
+    try {
+      int read;
+      while (left > 0 && (read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, left))) != -1) {
+        out.write(buffer, 0, read);
+        left -= read;
+      }
+      out.close();
+    } catch (IOException e) {
+      deleteChunks(blob.getChunks());
+      throw new SQLException("An error occurred during the writing of the BLOB of parameter " + parameterIndex, e);
+    }
+    setStreamedChunks(parameterIndex, blob.getChunks());
   }
 
   public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, reader, length);
   }
 
   public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
@@ -273,11 +621,11 @@ public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements
   }
 
   public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
-    throw new UnsupportedOperationException();
+    setBlob(parameterIndex, x, length);
   }
 
   public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, reader, length);
   }
 
   public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
@@ -285,26 +633,26 @@ public class OrientJdbcPreparedStatement extends OrientJdbcStatement implements
   }
 
   public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
-    throw new UnsupportedOperationException();
+    setBlob(parameterIndex, x, -1);
   }
 
   public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, reader, -1);
   }
 
   public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, value, -1);
   }
 
   public void setClob(int parameterIndex, Reader reader) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, reader, -1);
   }
 
   public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
-    throw new UnsupportedOperationException();
+    setBlob(parameterIndex, inputStream, -1);
   }
 
   public void setNClob(int parameterIndex, Reader reader) throws SQLException {
-    throw new UnsupportedOperationException();
+    setClob(parameterIndex, reader, -1);
   }
 }
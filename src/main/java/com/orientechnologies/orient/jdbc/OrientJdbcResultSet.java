@@ -17,6 +17,7 @@
  */
 package com.orientechnologies.orient.jdbc;
 
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordLazyList;
@@ -38,28 +39,84 @@ import java.util.*;
  * @author Salvatore Piccione (TXT e-solutions SpA - salvo.picci--at--gmail.com)
  */
 public class OrientJdbcResultSet implements ResultSet {
-  private List<ODocument>     records  = null;
-  private OrientJdbcStatement statement;
-  private int                 cursor   = -1;
-  private int                 rowCount = 0;
-  private ODocument           document;
-  private String[]            fieldNames;
-  private int                 type;
-  private int                 concurrency;
-  private int                 holdability;
+  private List<ODocument>       records  = null;
+  private List<Object[]>        tuples   = null;
+  private OrientJdbcCursor      stream   = null;
+  private OrientJdbcRowStore    rows     = null;
+  private OrientJdbcStatement   statement;
+  private int                   cursor   = -1;
+  private int                   rowCount = 0;
+  private int                   maxRows;
+  private ODocument             document;
+  private Object[]              tuple;
+  private OrientJdbcColumnIndex columns;
+  private boolean               wasNull;
+  private ResultSetMetaData     metaData;
+  private int                   type;
+  private int                   concurrency;
+  private int                   holdability;
 
   protected OrientJdbcResultSet(final OrientJdbcStatement iOrientJdbcStatement, final List<ODocument> iRecords, final int type,
       final int concurrency, int holdability) throws SQLException {
     statement = iOrientJdbcStatement;
-    records = iRecords;
-    rowCount = iRecords.size();
+    maxRows = iOrientJdbcStatement.getMaxRows();
+    // THE LIMIT CANNOT BE PUSHED DOWN WHEN IT IS A PARAMETER
+    records = maxRows > 0 && iRecords.size() > maxRows ? iRecords.subList(0, maxRows) : iRecords;
+    rowCount = records.size();
 
-    if (rowCount > 0) {
+    if (rowCount > 0)
       document = (ODocument) records.get(0).getRecord();
-      fieldNames = document.fieldNames();
+    columns = statement.getColumnIndex(document);
+
+    ODatabaseRecordThreadLocal.INSTANCE.set(iOrientJdbcStatement.database);
+    checkTypes(type, concurrency, holdability);
+
+    if (statement.connection.isOffHeapRowStore()) {
+      // THE RECORDS ARE SERIALIZED AND RELEASED, EACH ROW IS DESERIALIZED WHEN THE CURSOR MOVES ON IT. THE WHOLE LIST IS ALREADY
+      // IN THE HEAP HERE: ONLY SCROLL-INSENSITIVE QUERIES, THAT ARE STREAMED, STORE THE ROWS AS THEY ARRIVE
+      rows = statement.connection.newRowStore();
+      for (ODocument record : records)
+        rows.add((ODocument) record.getRecord());
+      records = null;
     }
+  }
+
+  /**
+   * Creates a result set that reads the records from a cursor while they are produced by the query. A forward-only result set does
+   * not retain the records, so scrolling is not supported. A scroll-insensitive one keeps the rows read in a row store of the
+   * connection, and reads the cursor further only when it is scrolled past them. In both cases the number of rows is known only once
+   * the cursor is exhausted.
+   */
+  protected OrientJdbcResultSet(final OrientJdbcStatement iOrientJdbcStatement, final OrientJdbcCursor iStream, final int type,
+      final int concurrency, int holdability) throws SQLException {
+    statement = iOrientJdbcStatement;
+    maxRows = iOrientJdbcStatement.getMaxRows();
+    stream = iStream;
+    columns = statement.getColumnIndex((ODocument) null);
 
     ODatabaseRecordThreadLocal.INSTANCE.set(iOrientJdbcStatement.database);
+    checkTypes(type, concurrency, holdability);
+    if (type == TYPE_SCROLL_INSENSITIVE)
+      rows = statement.connection.newRowStore();
+  }
+
+  /**
+   * Creates a result set of rows computed by the driver, as the ones of the database metadata, that reads its values by column from
+   * arrays without records nor a database bound to the thread.
+   */
+  OrientJdbcResultSet(final OrientJdbcStatement iOrientJdbcStatement, final OrientJdbcTuples iTuples, final int type,
+      final int concurrency, int holdability) throws SQLException {
+    statement = iOrientJdbcStatement;
+    maxRows = iOrientJdbcStatement.getMaxRows();
+    final List<Object[]> rows = iTuples.getRows();
+    tuples = maxRows > 0 && rows.size() > maxRows ? rows.subList(0, maxRows) : rows;
+    rowCount = tuples.size();
+    columns = iTuples.getColumns();
+
+    checkTypes(type, concurrency, holdability);
+  }
+
+  private void checkTypes(final int type, final int concurrency, final int holdability) throws SQLException {
     if (type == TYPE_FORWARD_ONLY || type == TYPE_SCROLL_INSENSITIVE || type == TYPE_SCROLL_SENSITIVE)
       this.type = type;
     else
@@ -87,39 +144,61 @@ public class OrientJdbcResultSet implements ResultSet {
     cursor = 0;
     rowCount = 0;
     records = null;
+    tuples = null;
+    if (stream != null) {
+      stream.close();
+      stream = null;
+    }
+    if (rows != null) {
+      statement.connection.closeRowStore(rows);
+      rows = null;
+    }
   }
 
   public boolean first() throws SQLException {
+    checkScrollable();
     return absolute(0);
   }
 
   public boolean last() throws SQLException {
+    checkScrollable();
+    fetchRows(Integer.MAX_VALUE);
     return absolute(rowCount - 1);
   }
 
   public boolean next() throws SQLException {
-    return absolute(++cursor);
+    if (stream != null && rows == null)
+      return nextFromStream();
+    return absolute(cursor + 1);
   }
 
   public boolean previous() throws SQLException {
-    return absolute(++cursor);
+    checkScrollable();
+    return absolute(cursor - 1);
   }
 
   public void afterLast() throws SQLException {
+    checkScrollable();
+    fetchRows(Integer.MAX_VALUE);
     // OUT OF LAST ITEM
     cursor = rowCount;
   }
 
   public void beforeFirst() throws SQLException {
+    checkScrollable();
     // OUT OF FIRST ITEM
     cursor = -1;
   }
 
   public boolean relative(int iRows) throws SQLException {
+    checkScrollable();
     return absolute(cursor + iRows);
   }
 
   public boolean absolute(int iRowNumber) throws SQLException {
+    checkScrollable();
+    if (iRowNumber >= rowCount)
+      fetchRows(iRowNumber + 1);
     if (iRowNumber > rowCount - 1) {
       // OUT OF LAST ITEM
       cursor = rowCount;
@@ -131,12 +210,60 @@ public class OrientJdbcResultSet implements ResultSet {
     }
 
     cursor = iRowNumber;
-    document = (ODocument) records.get(cursor).getRecord();
+    if (tuples != null)
+      tuple = tuples.get(cursor);
+    else if (rows != null)
+      document = rows.get(cursor);
+    else
+      document = (ODocument) records.get(cursor).getRecord();
     return true;
   }
 
+  /**
+   * Stores the records read from the cursor of a scroll-insensitive result set until there are at least the given rows. The rows of
+   * a result set read in full by the query are all stored already.
+   */
+  private void fetchRows(final int count) throws SQLException {
+    if (rows == null || stream == null)
+      return;
+    try {
+      while (rowCount < count && (maxRows <= 0 || rowCount < maxRows) && stream.hasNext()) {
+        final ODocument record = (ODocument) stream.next().getRecord();
+        if (columns == null)
+          columns = statement.getColumnIndex(record);
+        rows.add(record);
+        rowCount++;
+      }
+    } catch (OException e) {
+      throw statement.toSQLException(e);
+    }
+  }
+
+  private boolean nextFromStream() throws SQLException {
+    try {
+      if (cursor >= rowCount || (maxRows > 0 && rowCount >= maxRows) || !stream.hasNext()) {
+        cursor = rowCount;
+        document = null;
+        return false;
+      }
+
+      document = (ODocument) stream.next().getRecord();
+      if (columns == null)
+        columns = statement.getColumnIndex(document);
+      cursor = rowCount++;
+      return true;
+    } catch (OException e) {
+      throw statement.toSQLException(e);
+    }
+  }
+
+  private void checkScrollable() throws SQLException {
+    if (stream != null && rows == null)
+      throw new SQLException("The result set is streamed and can only be read forward with next()");
+  }
+
   public boolean isAfterLast() throws SQLException {
-    return cursor >= rowCount - 1;
+    return rowCount > 0 && cursor >= rowCount;
   }
 
   public boolean isBeforeFirst() throws SQLException {
@@ -144,7 +271,7 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public boolean isClosed() throws SQLException {
-    return records == null;
+    return records == null && tuples == null && stream == null && rows == null;
   }
 
   public boolean isFirst() throws SQLException {
@@ -152,6 +279,13 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public boolean isLast() throws SQLException {
+    if (stream != null) {
+      try {
+        return cursor >= 0 && cursor == rowCount - 1 && ((maxRows > 0 && rowCount >= maxRows) || !stream.hasNext());
+      } catch (OException e) {
+        throw statement.toSQLException(e);
+      }
+    }
     return cursor == rowCount - 1;
   }
 
@@ -160,7 +294,42 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public ResultSetMetaData getMetaData() throws SQLException {
-    return new OrientJdbcResultSetMetaData(this);
+    // THE COLUMNS OF A STREAMED RESULT SET ARE KNOWN ONLY ONCE THE FIRST RECORD IS READ
+    if (metaData == null && columns != null)
+      metaData = new OrientJdbcResultSetMetaData(this);
+    return metaData != null ? metaData : new OrientJdbcResultSetMetaData(this);
+  }
+
+  OrientJdbcColumnIndex getColumnIndex() {
+    return columns;
+  }
+
+  /**
+   * Returns the first records of the result set, or the current one when it is streamed.
+   */
+  List<ODocument> getSampleRecords(final int max) throws SQLException {
+    if (rows != null && rows.size() > 0) {
+      final List<ODocument> samples = new ArrayList<ODocument>(Math.min(max, rows.size()));
+      for (int i = 0; i < rows.size() && i < max; i++)
+        samples.add(rows.get(i));
+      return samples;
+    }
+    if (records != null && stream == null) {
+      final List<ODocument> samples = new ArrayList<ODocument>(Math.min(max, records.size()));
+      for (int i = 0; i < records.size() && i < max; i++)
+        samples.add((ODocument) records.get(i).getRecord());
+      return samples;
+    }
+    return document != null ? Collections.singletonList(document) : Collections.<ODocument> emptyList();
+  }
+
+  /**
+   * Returns the first rows of a result set computed by the driver, or nothing if its rows are records.
+   */
+  List<Object[]> getSampleTuples(final int max) {
+    if (tuples == null)
+      return Collections.emptyList();
+    return tuples.size() > max ? tuples.subList(0, max) : tuples;
   }
 
   public void deleteRow() throws SQLException {
@@ -168,23 +337,60 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public int findColumn(String columnLabel) throws SQLException {
-    int column = 0;
-    int i = 0;
-    while (i < (fieldNames.length - 1) && column == 0) {
-      if (fieldNames[i].equals(columnLabel))
-        column = i + 1;
-      else
-        i++;
-    }
+    final int column = columns != null ? columns.find(columnLabel) : 0;
     if (column == 0)
       throw new SQLException("The column '" + columnLabel + "' does not exists (Result Set element: " + rowCount + ")");
     return column;
   }
 
-  private int getFieldIndex(final int columnIndex) throws SQLException {
+  private String getFieldName(final int columnIndex) throws SQLException {
     if (columnIndex < 1)
       throw new SQLException("The column index cannot be less than 1");
-    return columnIndex - 1;
+    if (columns == null || columnIndex > columns.size())
+      throw new SQLException("The column index " + columnIndex + " is out of range (Result Set element: " + rowCount + ")");
+    return columns.getLabel(columnIndex);
+  }
+
+  /**
+   * Returns the name of the field of a column label, that is matched ignoring the case. Labels that are not columns, as
+   * <code>@rid</code>, are returned as they are.
+   */
+  private String getFieldName(final String columnLabel) {
+    final int column = columns != null ? columns.find(columnLabel) : 0;
+    return column > 0 ? columns.getLabel(column) : columnLabel;
+  }
+
+  /**
+   * Returns the value of a field of the current row, read from the record or from the tuple.
+   */
+  private Object getValue(final String fieldName) {
+    if (tuple == null)
+      return document.field(fieldName);
+    final int column = columns.find(fieldName);
+    return column > 0 ? tuple[column - 1] : null;
+  }
+
+  /**
+   * Returns the value of a field of the current row converted to a type.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T getValue(final String fieldName, final OType type) {
+    if (tuple == null)
+      return document.field(fieldName, type);
+    return (T) OType.convert(getValue(fieldName), type.getDefaultJavaType());
+  }
+
+  /**
+   * Returns the value of a column as a number, remembering if it is null for {@link #wasNull()}. A value already stored as a number
+   * is returned as it is, so the primitive getters do not box nor convert it: only other values are converted to the type.
+   */
+  private Number getNumber(final String columnLabel, final OType type) {
+    final String fieldName = getFieldName(columnLabel);
+    Object value = getValue(fieldName);
+    if (value != null && !(value instanceof Number))
+      value = getValue(fieldName, type);
+    wasNull = value == null;
+    return (Number) value;
   }
 
   public Array getArray(int columnIndex) throws SQLException {
@@ -207,31 +413,35 @@ public class OrientJdbcResultSet implements ResultSet {
 
   public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
 
-    return getBigDecimal(fieldNames[getFieldIndex(columnIndex)]);
+    return getBigDecimal(getFieldName(columnIndex));
   }
 
   public BigDecimal getBigDecimal(final String columnLabel) throws SQLException {
     try {
-      return (BigDecimal) document.field(columnLabel, OType.DECIMAL);
+      final BigDecimal r = getValue(getFieldName(columnLabel), OType.DECIMAL);
+      wasNull = r == null;
+      return r;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the double value at column '" + columnLabel + "'", e);
     }
   }
 
   public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
-    return getBigDecimal(fieldNames[getFieldIndex(columnIndex)], scale);
+    return getBigDecimal(getFieldName(columnIndex), scale);
   }
 
   public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
     try {
-      return ((BigDecimal) document.field(columnLabel, OType.DECIMAL)).setScale(scale);
+      final BigDecimal r = getValue(getFieldName(columnLabel), OType.DECIMAL);
+      wasNull = r == null;
+      return r != null ? r.setScale(scale) : null;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the double value at column '" + columnLabel + "'", e);
     }
   }
 
   public InputStream getBinaryStream(int columnIndex) throws SQLException {
-    return getBinaryStream(fieldNames[getFieldIndex(columnIndex)]);
+    return getBinaryStream(getFieldName(columnIndex));
   }
 
   public InputStream getBinaryStream(String columnLabel) throws SQLException {
@@ -246,48 +456,54 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public Blob getBlob(int columnIndex) throws SQLException {
-    return getBlob(fieldNames[getFieldIndex(columnIndex)]);
+    return getBlob(getFieldName(columnIndex));
   }
 
   public Blob getBlob(String columnLabel) throws SQLException {
 
     try {
-      Object value = document.field(columnLabel);
+      Object value = getValue(getFieldName(columnLabel));
+      wasNull = value == null;
 
-      if (value instanceof ORecordBytes) {
-        return new OrientBlob((ORecordBytes) value);
-      } else if (value instanceof ORecordLazyList) {
-        ORecordLazyList list = (ORecordLazyList) value;
-        // check if all the list items are instances of ORecordBytes
-        ListIterator<OIdentifiable> iterator = list.listIterator();
-
-        List<ORecordBytes> binaryRecordList = new ArrayList<ORecordBytes>(list.size());
-        while (iterator.hasNext()) {
-          OIdentifiable listElement = iterator.next();
+      return toBlob(value);
+    } catch (Exception e) {
+      throw new SQLException("An error occurred during the retrieval of the BLOB at column '" + columnLabel + "'", e);
+    }
 
-          ORecordBytes ob = document.getDatabase().load(listElement.getIdentity());
+  }
 
-          binaryRecordList.add(ob);
+  /**
+   * Returns a BLOB over a binary record or a list of binary records, or <code>null</code> for any other value.
+   */
+  private OrientBlob toBlob(final Object value) {
+    if (value instanceof ORecordBytes) {
+      return statement.connection.newBlob(Collections.singletonList((ORecordBytes) value));
+    } else if (value instanceof ORecordLazyList) {
+      ORecordLazyList list = (ORecordLazyList) value;
+      // THE CHUNKS ARE LOADED BY THE BLOB WHEN THEY ARE READ
+      Iterator<OIdentifiable> iterator = list.rawIterator();
 
-        }
-        return new OrientBlob(binaryRecordList);
-      }
+      List<OIdentifiable> chunks = new ArrayList<OIdentifiable>(list.size());
+      while (iterator.hasNext())
+        chunks.add(iterator.next());
 
-      return null;
-    } catch (Exception e) {
-      throw new SQLException("An error occurred during the retrieval of the BLOB at column '" + columnLabel + "'", e);
+      return statement.connection.newBlob(chunks);
     }
-
+    return null;
   }
 
   public boolean getBoolean(int columnIndex) throws SQLException {
-    return getBoolean(fieldNames[getFieldIndex(columnIndex)]);
+    return getBoolean(getFieldName(columnIndex));
   }
 
-  @SuppressWarnings("boxing")
   public boolean getBoolean(String columnLabel) throws SQLException {
     try {
-      return (Boolean) document.field(columnLabel, OType.BOOLEAN);
+      final String fieldName = getFieldName(columnLabel);
+      Object value = getValue(fieldName);
+      if (value != null && !(value instanceof Boolean))
+        value = getValue(fieldName, OType.BOOLEAN);
+      wasNull = value == null;
+      return value != null && (Boolean) value;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the boolean value at column '" + columnLabel + "'", e);
     }
@@ -296,31 +512,33 @@ public class OrientJdbcResultSet implements ResultSet {
 
   @SuppressWarnings("boxing")
   public byte getByte(int columnIndex) throws SQLException {
-    return getByte(fieldNames[getFieldIndex(columnIndex)]);
+    return getByte(getFieldName(columnIndex));
   }
 
   public byte getByte(String columnLabel) throws SQLException {
     try {
-      return (Byte) document.field(columnLabel, OType.BYTE);
+      final Number r = getNumber(columnLabel, OType.BYTE);
+      return r != null ? r.byteValue() : 0;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the byte value at column '" + columnLabel + "'", e);
     }
   }
 
   public byte[] getBytes(int columnIndex) throws SQLException {
-    return getBytes(fieldNames[getFieldIndex(columnIndex)]);
+    return getBytes(getFieldName(columnIndex));
   }
 
   public byte[] getBytes(String columnLabel) throws SQLException {
     try {
 
-      Object value = document.field(columnLabel);
+      Object value = getValue(getFieldName(columnLabel));
+      wasNull = value == null;
       if (value == null)
         return null;
       else {
         if (value instanceof ORecordBytes)
           return ((ORecordBytes) value).toStream();
-        return document.field(columnLabel, OType.BINARY);
+        return getValue(getFieldName(columnLabel), OType.BINARY);
       }
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the bytes value at column '" + columnLabel + "'", e);
@@ -328,23 +546,20 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public Reader getCharacterStream(int columnIndex) throws SQLException {
-
-    return null;
+    return getCharacterStream(getFieldName(columnIndex));
   }
 
   public Reader getCharacterStream(String columnLabel) throws SQLException {
-
-    return null;
+    final NClob clob = getNClob(columnLabel);
+    return clob != null ? clob.getCharacterStream() : null;
   }
 
   public Clob getClob(int columnIndex) throws SQLException {
-
-    return null;
+    return getNClob(getFieldName(columnIndex));
   }
 
   public Clob getClob(String columnLabel) throws SQLException {
-
-    return null;
+    return getNClob(columnLabel);
   }
 
   public int getConcurrency() throws SQLException {
@@ -357,14 +572,15 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public Date getDate(int columnIndex) throws SQLException {
-    return getDate(fieldNames[getFieldIndex(columnIndex)]);
+    return getDate(getFieldName(columnIndex));
   }
 
   public Date getDate(final String columnLabel) throws SQLException {
     try {
       setDatabaseOnThreadLocalInstance();
 
-      java.util.Date date = document.field(columnLabel, OType.DATETIME);
+      java.util.Date date = getValue(getFieldName(columnLabel), OType.DATETIME);
+      wasNull = date == null;
       return date != null ? new Date(date.getTime()) : null;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the date value at column '" + columnLabel + "'", e);
@@ -372,7 +588,7 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public Date getDate(final int columnIndex, final Calendar cal) throws SQLException {
-    return getDate(fieldNames[getFieldIndex(columnIndex)], cal);
+    return getDate(getFieldName(columnIndex), cal);
   }
 
   public Date getDate(String columnLabel, Calendar cal) throws SQLException {
@@ -381,7 +597,8 @@ public class OrientJdbcResultSet implements ResultSet {
     try {
       setDatabaseOnThreadLocalInstance();
 
-      java.util.Date date = document.field(columnLabel, OType.DATETIME);
+      java.util.Date date = getValue(getFieldName(columnLabel), OType.DATETIME);
+      wasNull = date == null;
       if (date == null)
         return null;
       cal.setTimeInMillis(date.getTime());
@@ -393,13 +610,13 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public double getDouble(final int columnIndex) throws SQLException {
-    return getDouble(fieldNames[getFieldIndex(columnIndex)]);
+    return getDouble(getFieldName(columnIndex));
   }
 
   public double getDouble(final String columnLabel) throws SQLException {
     try {
-      final Double r = document.field(columnLabel, OType.DOUBLE);
-      return r != null ? r : 0;
+      final Number r = getNumber(columnLabel, OType.DOUBLE);
+      return r != null ? r.doubleValue() : 0;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the double value at column '" + columnLabel + "'", e);
     }
@@ -411,19 +628,19 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public int getFetchSize() throws SQLException {
-
-    return rowCount;
+    final int fetchSize = statement.getFetchSize();
+    return fetchSize > 0 ? fetchSize : rowCount;
   }
 
   public float getFloat(int columnIndex) throws SQLException {
 
-    return getFloat(fieldNames[getFieldIndex(columnIndex)]);
+    return getFloat(getFieldName(columnIndex));
   }
 
   public float getFloat(String columnLabel) throws SQLException {
     try {
-      final Float r = document.field(columnLabel, OType.FLOAT);
-      return r != null ? r : 0;
+      final Number r = getNumber(columnLabel, OType.FLOAT);
+      return r != null ? r.floatValue() : 0;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the float value at column '" + columnLabel + "'", e);
     }
@@ -435,15 +652,17 @@ public class OrientJdbcResultSet implements ResultSet {
 
   public int getInt(int columnIndex) throws SQLException {
 
-    return getInt(fieldNames[getFieldIndex(columnIndex)]);
+    return getInt(getFieldName(columnIndex));
   }
 
   public int getInt(String columnLabel) throws SQLException {
-    if ("@version".equals(columnLabel))
+    if ("@version".equals(columnLabel) && document != null) {
+      wasNull = false;
       return document.getVersion();
+    }
     try {
-      final Integer r = document.field(columnLabel, OType.INTEGER);
-      return r != null ? r : 0;
+      final Number r = getNumber(columnLabel, OType.INTEGER);
+      return r != null ? r.intValue() : 0;
 
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the integer value at column '" + columnLabel + "'", e);
@@ -451,57 +670,68 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public long getLong(int columnIndex) throws SQLException {
-    return getLong(fieldNames[getFieldIndex(columnIndex)]);
+    return getLong(getFieldName(columnIndex));
   }
 
   public long getLong(String columnLabel) throws SQLException {
     try {
-      Long r = document.field(columnLabel, OType.LONG);
-      return r != null ? r : 0;
+      final Number r = getNumber(columnLabel, OType.LONG);
+      return r != null ? r.longValue() : 0;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the long value at column '" + columnLabel + "'", e);
     }
   }
 
   public Reader getNCharacterStream(int columnIndex) throws SQLException {
-
-    return null;
+    return getCharacterStream(getFieldName(columnIndex));
   }
 
   public Reader getNCharacterStream(String columnLabel) throws SQLException {
-
-    return null;
+    return getCharacterStream(columnLabel);
   }
 
   public NClob getNClob(int columnIndex) throws SQLException {
-
-    return null;
+    return getNClob(getFieldName(columnIndex));
   }
 
   public NClob getNClob(String columnLabel) throws SQLException {
 
-    return null;
+    try {
+      Object value = getValue(getFieldName(columnLabel));
+      wasNull = value == null;
+
+      if (value instanceof String)
+        return new OrientClob((String) value);
+      // TEXT STORED AS UTF-8 IN BINARY RECORDS
+      final OrientBlob blob = toBlob(value);
+      return blob != null ? new OrientClob(blob) : null;
+    } catch (Exception e) {
+      throw new SQLException("An error occurred during the retrieval of the CLOB at column '" + columnLabel + "'", e);
+    }
   }
 
   public String getNString(int columnIndex) throws SQLException {
-    return getNString(fieldNames[getFieldIndex(columnIndex)]);
+    return getNString(getFieldName(columnIndex));
   }
 
   public String getNString(String columnLabel) throws SQLException {
     try {
-      return document.field(columnLabel, OType.STRING);
+      final String r = getValue(getFieldName(columnLabel), OType.STRING);
+      wasNull = r == null;
+      return r;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the string value at column '" + columnLabel + "'", e);
     }
   }
 
   public Object getObject(int columnIndex) throws SQLException {
-    return getObject(fieldNames[getFieldIndex(columnIndex)]);
+    return getObject(getFieldName(columnIndex));
   }
 
   public Object getObject(String columnLabel) throws SQLException {
     try {
-      Object value = document.field(columnLabel);
+      Object value = getValue(getFieldName(columnLabel));
+      wasNull = value == null;
       if (value == null)
         return null;
       else {
@@ -564,14 +794,13 @@ public class OrientJdbcResultSet implements ResultSet {
 
   public short getShort(int columnIndex) throws SQLException {
 
-    return getShort(fieldNames[getFieldIndex(columnIndex)]);
+    return getShort(getFieldName(columnIndex));
   }
 
-  @SuppressWarnings("boxing")
   public short getShort(String columnLabel) throws SQLException {
     try {
-      final Short r = document.field(columnLabel, OType.SHORT);
-      return r != null ? r : 0;
+      final Number r = getNumber(columnLabel, OType.SHORT);
+      return r != null ? r.shortValue() : 0;
 
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the short value at column '" + columnLabel + "'", e);
@@ -580,16 +809,19 @@ public class OrientJdbcResultSet implements ResultSet {
 
   public String getString(int columnIndex) throws SQLException {
 
-    return getString(fieldNames[getFieldIndex(columnIndex)]);
+    return getString(getFieldName(columnIndex));
   }
 
   public String getString(String columnLabel) throws SQLException {
-    if ("@rid".equals(columnLabel))
+    wasNull = false;
+    if ("@rid".equals(columnLabel) && document != null)
       return document.getIdentity().toString();
-    if ("@class".equals(columnLabel))
+    if ("@class".equals(columnLabel) && document != null)
       return document.getClassName();
     try {
-      return document.field(columnLabel, OType.STRING);
+      final String r = getValue(getFieldName(columnLabel), OType.STRING);
+      wasNull = r == null;
+      return r;
     } catch (Exception e) {
       throw new SQLException("An error occurred during the retrieval of the string value at column '" + columnLabel + "'", e);
     }
@@ -597,12 +829,13 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public Time getTime(int columnIndex) throws SQLException {
-    return getTime(fieldNames[getFieldIndex(columnIndex)]);
+    return getTime(getFieldName(columnIndex));
   }
 
   public Time getTime(String columnLabel) throws SQLException {
     try {
-      java.util.Date date = document.field(columnLabel, OType.DATETIME);
+      java.util.Date date = getValue(getFieldName(columnLabel), OType.DATETIME);
+      wasNull = date == null;
       if (date == null)
         return null;
       return new Time(date.getTime());
@@ -612,27 +845,33 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public Time getTime(int columnIndex, Calendar cal) throws SQLException {
-    return new Time(getDate(columnIndex, cal).getTime());
+    final Date date = getDate(columnIndex, cal);
+    return date != null ? new Time(date.getTime()) : null;
   }
 
   public Time getTime(String columnLabel, Calendar cal) throws SQLException {
-    return new Time(getDate(columnLabel, cal).getTime());
+    final Date date = getDate(columnLabel, cal);
+    return date != null ? new Time(date.getTime()) : null;
   }
 
   public Timestamp getTimestamp(int columnIndex) throws SQLException {
-    return new Timestamp(getDate(columnIndex).getTime());
+    final Date date = getDate(columnIndex);
+    return date != null ? new Timestamp(date.getTime()) : null;
   }
 
   public Timestamp getTimestamp(String columnLabel) throws SQLException {
-    return new Timestamp(getDate(columnLabel).getTime());
+    final Date date = getDate(columnLabel);
+    return date != null ? new Timestamp(date.getTime()) : null;
   }
 
   public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
-    return new Timestamp(getDate(columnIndex, cal).getTime());
+    final Date date = getDate(columnIndex, cal);
+    return date != null ? new Timestamp(date.getTime()) : null;
   }
 
   public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
-    return new Timestamp(getDate(columnLabel, cal).getTime());
+    final Date date = getDate(columnLabel, cal);
+    return date != null ? new Timestamp(date.getTime()) : null;
   }
 
   public int getType() throws SQLException {
@@ -1036,8 +1275,7 @@ public class OrientJdbcResultSet implements ResultSet {
   }
 
   public boolean wasNull() throws SQLException {
-
-    return false;
+    return wasNull;
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException {
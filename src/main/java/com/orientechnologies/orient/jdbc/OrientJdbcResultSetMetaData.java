@@ -17,11 +17,14 @@
  */
 package com.orientechnologies.orient.jdbc;
 
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordLazyList;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OProperty;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ORecordBytes;
 
@@ -30,7 +33,8 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.ListIterator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -68,10 +72,74 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
     typesSqlTypes.put(OType.TRANSIENT, Types.NULL);
   }
 
-  private OrientJdbcResultSet              resultSet;
-
-  public OrientJdbcResultSetMetaData(final OrientJdbcResultSet iResultSet) {
+  /**
+   * Number of records sampled to find the type of the columns that the schema does not define.
+   */
+  static final int                         SAMPLE_SIZE   = 16;
+
+  private final OrientJdbcResultSet        resultSet;
+  private final String[]                   names;
+  private final OType[]                    types;
+  private final int[]                      sqlTypes;
+  private final String[]                   classNames;
+  private final OProperty[]                properties;
+  private final String                     schemaName;
+
+  /**
+   * Takes a snapshot of the columns of a result set: the types are taken from the fields of its first records and from the
+   * properties of their classes, sampling up to {@link #SAMPLE_SIZE} records or rows until a column has a value.
+   */
+  public OrientJdbcResultSetMetaData(final OrientJdbcResultSet iResultSet) throws SQLException {
     resultSet = iResultSet;
+
+    final OrientJdbcColumnIndex columns = iResultSet.getColumnIndex();
+    final List<ODocument> samples = iResultSet.getSampleRecords(SAMPLE_SIZE);
+    final List<Object[]> tuples = iResultSet.getSampleTuples(SAMPLE_SIZE);
+    final int count = columns != null ? columns.size() : 0;
+
+    names = new String[count];
+    types = new OType[count];
+    sqlTypes = new int[count];
+    classNames = new String[count];
+    properties = new OProperty[count];
+    schemaName = samples.isEmpty() ? "" : samples.get(0).getDatabase().getName();
+
+    for (int i = 0; i < count; i++) {
+      final String name = columns.getLabel(i + 1);
+      names[i] = name;
+      sqlTypes[i] = Types.NULL;
+
+      for (ODocument record : samples) {
+        final OClass schemaClass = record.getSchemaClass();
+        if (properties[i] == null && schemaClass != null)
+          properties[i] = schemaClass.getProperty(name);
+
+        OType otype = record.fieldType(name);
+        if (otype == null && properties[i] != null)
+          otype = properties[i].getType();
+        if (types[i] == null)
+          types[i] = otype;
+
+        final Object value = record.field(name);
+        if (classNames[i] == null && value != null)
+          classNames[i] = value.getClass().getName();
+        if (sqlTypes[i] == Types.NULL)
+          sqlTypes[i] = getSqlType(otype, value);
+
+        if (sqlTypes[i] != Types.NULL && classNames[i] != null)
+          break;
+      }
+
+      // ROWS COMPUTED BY THE DRIVER HAVE NO SCHEMA: THE TYPE IS THE ONE OF THE FIRST VALUE
+      for (Object[] tuple : tuples) {
+        final Object value = tuple[i];
+        if (value != null) {
+          classNames[i] = value.getClass().getName();
+          sqlTypes[i] = getSqlType(null, value);
+          break;
+        }
+      }
+    }
   }
 
   public static Integer getSqlType(final OType iType) {
@@ -79,8 +147,7 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
   }
 
   public int getColumnCount() throws SQLException {
-    final ODocument currentRecord = getCurrentRecord();
-    return currentRecord.fields();
+    return names.length;
   }
 
   public String getCatalogName(final int column) throws SQLException {
@@ -89,10 +156,7 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
   }
 
   public String getColumnClassName(final int column) throws SQLException {
-    Object value = this.resultSet.getObject(column);
-    if (value == null)
-      return null;
-    return value.getClass().getName();
+    return classNames[getIndex(column)];
   }
 
   public int getColumnDisplaySize(final int column) throws SQLException {
@@ -104,50 +168,38 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
   }
 
   public String getColumnName(final int column) throws SQLException {
-    final ODocument currentRecord = getCurrentRecord();
-    return currentRecord.fieldNames()[column - 1];
+    return names[getIndex(column)];
   }
 
   public int getColumnType(final int column) throws SQLException {
-    final ODocument currentRecord = getCurrentRecord();
-
-    final String[] fieldNames = currentRecord.fieldNames();
+    return sqlTypes[getIndex(column)];
+  }
 
-    if (column > fieldNames.length)
-      return Types.NULL;
+  private int getIndex(final int column) throws SQLException {
+    if (column < 1 || column > names.length)
+      throw new SQLException("The column index " + column + " is out of range: the result set has " + names.length + " columns");
+    return column - 1;
+  }
 
-    String fieldName = fieldNames[column - 1];
-    // The OClass is not available so attempting to retrieve the OType from
-    // the schema class
-    // results in a NullPointerException
-    // OClass oclass = currentRecord.getSchemaClass();
-    OType otype = currentRecord.fieldType(fieldName);
+  protected ODocument getCurrentRecord() throws SQLException {
+    final ODocument currentRecord = this.resultSet.unwrap(ODocument.class);
+    if (currentRecord == null)
+      throw new SQLException("No current record");
+    return currentRecord;
+  }
 
+  private static int getSqlType(final OType otype, final Object value) {
     if (otype == null) {
-      Object value = currentRecord.field(fieldName);
       if (value == null)
         return Types.NULL;
       // Check if the type is a binary record or a collection of binary
       // records
       else if (value instanceof ORecordBytes)
         return Types.BINARY;
-      else if (value instanceof ORecordLazyList) {
-        ORecordLazyList list = (ORecordLazyList) value;
-        // check if all the list items are instances of ORecordBytes
-        ListIterator<OIdentifiable> iterator = list.listIterator();
-        OIdentifiable listElement;
-        boolean stop = false;
-        while (iterator.hasNext() && !stop) {
-          listElement = iterator.next();
-          if (!(listElement instanceof ORecordBytes))
-            stop = true;
-        }
-        if (!stop)
-          return Types.BLOB;
-      }
-      return this.getSQLTypeFromJavaClass(value);
+      else if (value instanceof ORecordLazyList && isBinary((ORecordLazyList) value))
+        return Types.BLOB;
+      return getSQLTypeFromJavaClass(value);
     } else if (otype == OType.EMBEDDED || otype == OType.LINK) {
-      Object value = currentRecord.field(fieldName);
       if (value == null)
         return Types.NULL;
       // 1. Check if the type is another record or a collection of records
@@ -157,38 +209,41 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
         // the default type
         return typesSqlTypes.get(otype);
     } else if (otype == OType.EMBEDDEDLIST || otype == OType.LINKLIST) {
-      Object value = currentRecord.field(fieldName);
       if (value == null)
         return Types.NULL;
-      if (value instanceof ORecordLazyList) {
-        ORecordLazyList list = (ORecordLazyList) value;
-        // check if all the list items are instances of ORecordBytes
-        ListIterator<OIdentifiable> iterator = list.listIterator();
-        OIdentifiable listElement;
-        boolean stop = false;
-        while (iterator.hasNext() && !stop) {
-          listElement = iterator.next();
-          if (!(listElement instanceof ORecordBytes))
-            stop = true;
-        }
-        if (stop)
-          return typesSqlTypes.get(otype);
-        else
-          return Types.BLOB;
-      } else
+      if (value instanceof ORecordLazyList)
+        return isBinary((ORecordLazyList) value) ? Types.BLOB : typesSqlTypes.get(otype);
+      else
         return Types.JAVA_OBJECT;
-    } else
-      return typesSqlTypes.get(otype);
+    }
+
+    final Integer sqlType = typesSqlTypes.get(otype);
+    return sqlType != null ? sqlType : Types.JAVA_OBJECT;
   }
 
-  protected ODocument getCurrentRecord() throws SQLException {
-    final ODocument currentRecord = this.resultSet.unwrap(ODocument.class);
-    if (currentRecord == null)
-      throw new SQLException("No current record");
-    return currentRecord;
+  /**
+   * Tells whether all the items of a list are binary records, without loading them: the items not loaded yet are judged from their
+   * cluster, since binary records are not stored in the clusters of the classes.
+   */
+  private static boolean isBinary(final ORecordLazyList list) {
+    OSchema schema = null;
+    final Iterator<OIdentifiable> iterator = list.rawIterator();
+    while (iterator.hasNext()) {
+      final OIdentifiable item = iterator.next();
+      if (item instanceof ORecord) {
+        if (!(item instanceof ORecordBytes))
+          return false;
+      } else {
+        if (schema == null)
+          schema = ODatabaseRecordThreadLocal.INSTANCE.get().getMetadata().getSchema();
+        if (schema.getClassByClusterId(item.getIdentity().getClusterId()) != null)
+          return false;
+      }
+    }
+    return true;
   }
 
-  private int getSQLTypeFromJavaClass(final Object value) {
+  private static int getSQLTypeFromJavaClass(final Object value) {
     // START inferencing the OType from the Java class
     if (value instanceof Boolean)
       return typesSqlTypes.get(OType.BOOLEAN);
@@ -214,9 +269,7 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
   }
 
   public String getColumnTypeName(final int column) throws SQLException {
-    final ODocument currentRecord = getCurrentRecord();
-
-    OType columnType = currentRecord.fieldType(currentRecord.fieldNames()[column - 1]);
+    final OType columnType = types[getIndex(column)];
     if (columnType == null)
       return null;
     return columnType.toString();
@@ -231,11 +284,7 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
   }
 
   public String getSchemaName(final int column) throws SQLException {
-    final ODocument currentRecord = getCurrentRecord();
-    if (currentRecord == null)
-      return "";
-    else
-      return currentRecord.getDatabase().getName();
+    return schemaName;
   }
 
   public String getTableName(final int column) throws SQLException {
@@ -276,8 +325,7 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
   }
 
   public boolean isSigned(final int column) throws SQLException {
-    final ODocument currentRecord = getCurrentRecord();
-    return this.isANumericColumn(currentRecord.fieldType(currentRecord.fieldNames()[column - 1]));
+    return this.isANumericColumn(types[getIndex(column)]);
   }
 
   public boolean isWritable(final int column) throws SQLException {
@@ -298,15 +346,7 @@ public class OrientJdbcResultSetMetaData implements ResultSetMetaData {
   }
 
   protected OProperty getProperty(final int column) throws SQLException {
-    final ODocument currentRecord = getCurrentRecord();
-
-    final OClass schemaClass = currentRecord.getSchemaClass();
-    if (schemaClass != null) {
-      final String fieldName = currentRecord.fieldNames()[column - 1];
-      return schemaClass.getProperty(fieldName);
-    }
-
-    return null;
+    return properties[getIndex(column)];
   }
 
 }
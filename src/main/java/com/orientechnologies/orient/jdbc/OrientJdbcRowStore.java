@@ -0,0 +1,109 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
+
+/**
+ * Rows of a scroll-insensitive result set, kept serialized outside of the heap records. Every row is appended as the binary
+ * serialization of its record, preceded by the identity and the version of the record, and is deserialized again only when the
+ * cursor moves on it. An index of the positions of the rows allows to read any of them directly.
+ */
+abstract class OrientJdbcRowStore {
+
+  private static final int HEADER_SIZE = 2 + 8 + 4;
+
+  private long[]           offsets     = new long[64];
+  private int              size;
+
+  /**
+   * Appends the serialization of a record as the last row.
+   */
+  void add(final ODocument document) throws SQLException {
+    final byte[] content = ORecordSerializerBinary.INSTANCE.toStream(document, false);
+    final ORID rid = document.getIdentity();
+    final ByteBuffer row = ByteBuffer.allocate(HEADER_SIZE + content.length);
+    row.putShort((short) rid.getClusterId()).putLong(rid.getClusterPosition()).putInt(document.getVersion()).put(content);
+    row.flip();
+
+    if (size + 1 >= offsets.length)
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    try {
+      write(offsets[size], row);
+    } catch (IOException e) {
+      throw new SQLException("The row " + size + " of the result set cannot be stored", e);
+    }
+    offsets[size + 1] = offsets[size] + row.limit();
+    size++;
+  }
+
+  /**
+   * Returns a new record deserialized from a row, starting from 0.
+   */
+  ODocument get(final int row) throws SQLException {
+    final ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[row + 1] - offsets[row]));
+    try {
+      read(offsets[row], buffer);
+    } catch (IOException e) {
+      throw new SQLException("The row " + row + " of the result set cannot be read", e);
+    }
+    buffer.flip();
+
+    final int clusterId = buffer.getShort();
+    final long clusterPosition = buffer.getLong();
+    final int version = buffer.getInt();
+    final byte[] content = new byte[buffer.remaining()];
+    buffer.get(content);
+
+    final ODocument document = new ODocument();
+    ORecordSerializerBinary.INSTANCE.fromStream(content, document, null);
+    ORecordInternal.setIdentity(document, clusterId, clusterPosition);
+    ORecordInternal.setVersion(document, version);
+    return document;
+  }
+
+  /**
+   * Returns the number of rows stored.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Writes the bytes of a row at a position, that is always the end of the rows already written.
+   */
+  protected abstract void write(long position, ByteBuffer row) throws IOException;
+
+  /**
+   * Fills a buffer with the bytes stored from a position.
+   */
+  protected abstract void read(long position, ByteBuffer row) throws IOException;
+
+  /**
+   * Releases the storage of the rows.
+   */
+  abstract void close() throws SQLException;
+}
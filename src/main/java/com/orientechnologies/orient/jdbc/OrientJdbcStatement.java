@@ -17,17 +17,31 @@
  */
 package com.orientechnologies.orient.jdbc;
 
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandRequest;
+import com.orientechnologies.orient.core.command.OCommandRequestAbstract;
+import com.orientechnologies.orient.core.command.OCommandRequestText;
+import com.orientechnologies.orient.core.command.script.OCommandScript;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
-import com.orientechnologies.orient.core.exception.OQueryParsingException;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.OCommandSQLParsingException;
+import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static java.util.Collections.emptyList;
 
@@ -37,20 +51,39 @@ import static java.util.Collections.emptyList;
  */
 public class OrientJdbcStatement implements Statement {
 
-  protected final OrientJdbcConnection connection;
-  protected final ODatabaseDocumentTx  database;
+  private static final Pattern                SCHEMA_CHANGE = Pattern.compile(
+                                                                "\\s*(?:create|alter|drop|truncate)\\s+(?:class|property|index|cluster)\\b",
+                                                                Pattern.CASE_INSENSITIVE);
+  private static final Pattern                SELECT_ALL    = Pattern.compile(
+                                                                "\\s*select\\s+(?:\\*\\s+)?from\\s+(\\w+)\\s*(?:where\\b|order\\b|skip\\b|limit\\b|$)",
+                                                                Pattern.CASE_INSENSITIVE);
 
-  // protected OCommandSQL query;
-  protected OCommandRequest            query;
-  protected List<ODocument>            documents;
-  protected boolean                    closed;
-  protected Object                     rawResult;
-  protected OrientJdbcResultSet        resultSet;
-  protected List<String>               batches;
+  /**
+   * Row of <code>select 1</code>, the query used by pools and tools to validate a connection, answered without the database.
+   */
+  static final OrientJdbcTuples               SELECT_1      = new OrientJdbcTuples("1").add(1);
+
+  protected final OrientJdbcConnection        connection;
+  protected final ODatabaseDocumentTx         database;
 
-  protected int                        resultSetType;
-  protected int                        resultSetConcurrency;
-  protected int                        resultSetHoldability;
+  // protected OCommandSQL query;
+  protected OCommandRequest                   query;
+  protected List<ODocument>                   documents;
+  protected boolean                           closed;
+  protected Object                            rawResult;
+  protected OrientJdbcResultSet               resultSet;
+  protected List<String>                      batches;
+  protected int                               fetchSize;
+  protected int                               maxRows;
+  protected int                               queryTimeout;
+  protected volatile OrientJdbcCommandContext context;
+  protected boolean                           poolable;
+  private OrientJdbcColumnIndex               columnIndex;
+  private String[]                            schemaColumns;
+
+  protected int                               resultSetType;
+  protected int                               resultSetConcurrency;
+  protected int                               resultSetHoldability;
 
   public OrientJdbcStatement(final OrientJdbcConnection iConnection) {
     this(iConnection, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
@@ -63,7 +96,7 @@ public class OrientJdbcStatement implements Statement {
    * @throws SQLException
    */
   public OrientJdbcStatement(OrientJdbcConnection iConnection, int resultSetType, int resultSetConcurrency) throws SQLException {
-    this(iConnection, resultSetType, resultSetConcurrency, resultSetType);
+    this(iConnection, resultSetType, resultSetConcurrency, ResultSet.HOLD_CURSORS_OVER_COMMIT);
   }
 
   /**
@@ -87,23 +120,37 @@ public class OrientJdbcStatement implements Statement {
     if ("".equals(sql))
       return false;
 
+    closeResultSet();
+    setSchemaColumns(sql);
+
     if (sql.equalsIgnoreCase("select 1")) {
-      documents = new ArrayList<ODocument>();
-      documents.add(new ODocument().field("1", 1));
+      resultSet = new OrientJdbcResultSet(this, SELECT_1, resultSetType, resultSetConcurrency, resultSetHoldability);
+      return true;
+    } else if (isPageable(sql)) {
+      query = new OSQLSynchQuery<ODocument>(sql);
+      resultSet = executePaged(sql);
+      return true;
+    } else if (isStreamable(sql)) {
+      final OSQLAsynchQuery<ODocument> asynchQuery = prepareRequest(new OSQLAsynchQuery<ODocument>(sql));
+      query = asynchQuery;
+      resultSet = executeStreaming(asynchQuery);
+      return true;
     } else {
-      query = new OCommandSQL(sql);
+      query = prepareRequest(newCommand(sql));
       try {
+        beginTransaction(sql);
         rawResult = executeCommand(query);
         if (rawResult instanceof List<?>) {
           documents = (List<ODocument>) rawResult;
         } else
           return false;
 
-      } catch (OQueryParsingException e) {
-        throw new SQLSyntaxErrorException("Error on parsing the query", e);
+      } catch (OException e) {
+        throw toSQLException(e);
       }
     }
     resultSet = new OrientJdbcResultSet(this, documents, resultSetType, resultSetConcurrency, resultSetHoldability);
+    releaseDocuments();
     return true;
 
   }
@@ -130,23 +177,238 @@ public class OrientJdbcStatement implements Statement {
    */
 
   public int executeUpdate(final String sql) throws SQLException {
-    query = new OCommandSQL(sql);
-    rawResult = executeCommand(query);
+    query = prepareRequest(newCommand(sql));
+    try {
+      beginTransaction(sql);
+      rawResult = executeCommand(query);
+    } catch (OException e) {
+      throw toSQLException(e);
+    }
 
-    if (rawResult instanceof ODocument)
+    return getUpdateCount(rawResult, 0);
+  }
+
+  protected static int getUpdateCount(final Object result, final int unknown) {
+    if (result instanceof ODocument)
       return 1;
-    else if (rawResult instanceof Integer)
-      return (Integer) rawResult;
-    else if (rawResult instanceof Collection)
-      return ((Collection) rawResult).size();
+    else if (result instanceof Integer)
+      return (Integer) result;
+    else if (result instanceof Collection)
+      return ((Collection) result).size();
 
-    return 0;
+    return unknown;
   }
 
   public <RET> RET executeCommand(OCommandRequest query) {
     return database.command(query).execute();
   }
 
+  protected OCommandSQL newCommand(final String sql) {
+    return new OCommandSQL(sql);
+  }
+
+  /**
+   * Tells if the query can be served by a streaming result set: only queries on forward-only statements of connections opened with
+   * <code>db.streaming</code> are streamed, and queries on scroll-insensitive statements of connections with a
+   * <code>db.query.rowStore</code>.
+   */
+  protected boolean isStreamable(final String sql) {
+    // SCROLL-INSENSITIVE ROWS ARE STORED WHILE THEY ARE STREAMED
+    return (connection.isStreaming() && resultSetType == ResultSet.TYPE_FORWARD_ONLY || connection.isRowStore()
+        && resultSetType == ResultSet.TYPE_SCROLL_INSENSITIVE) && isQuery(sql);
+  }
+
+  /**
+   * Returns the index of the columns of a result set, reusing the one of the previous result set when the fields are the same, as
+   * for the executions of a prepared statement.
+   */
+  OrientJdbcColumnIndex getColumnIndex(final String[] fieldNames) {
+    if (columnIndex == null || !columnIndex.matches(fieldNames))
+      columnIndex = new OrientJdbcColumnIndex(fieldNames);
+    return columnIndex;
+  }
+
+  /**
+   * Returns the index of the columns of a result set: the properties of the queried class when they are known, otherwise the fields
+   * of its first record, or <code>null</code> if there is no record yet.
+   */
+  OrientJdbcColumnIndex getColumnIndex(final ODocument record) {
+    if (schemaColumns != null)
+      return getColumnIndex(schemaColumns);
+    return record != null ? getColumnIndex(record.fieldNames()) : null;
+  }
+
+  /**
+   * Fixes the columns of a <code>SELECT * FROM &lt;class&gt;</code> to the properties of the class, in alphabetical order, on
+   * connections opened with <code>db.query.schemaColumns</code>. The field names of a record are never asked then, so only the fields
+   * read through the result set are deserialized. Queries on schema-less classes keep the fields of their first record.
+   */
+  protected void setSchemaColumns(final String sql) {
+    schemaColumns = null;
+    if (!connection.isSchemaColumns())
+      return;
+
+    final Matcher matcher = SELECT_ALL.matcher(sql);
+    if (!matcher.lookingAt())
+      return;
+
+    final OClass oClass = database.getMetadata().getSchema().getClass(matcher.group(1));
+    if (oClass == null)
+      return;
+
+    final Collection<OProperty> properties = oClass.properties();
+    if (properties.isEmpty())
+      return;
+
+    final String[] names = new String[properties.size()];
+    int i = 0;
+    for (OProperty property : properties)
+      names[i++] = property.getName();
+    Arrays.sort(names);
+    schemaColumns = names;
+  }
+
+  protected static boolean isQuery(final String sql) {
+    final String command = sql.trim();
+    return command.regionMatches(true, 0, "select ", 0, 7) || command.regionMatches(true, 0, "traverse ", 0, 9);
+  }
+
+  /**
+   * Tells if the command changes the schema. Schema changes are not transactional, so they are never part of a transaction.
+   */
+  protected static boolean isSchemaChange(final String sql) {
+    return SCHEMA_CHANGE.matcher(sql).lookingAt();
+  }
+
+  /**
+   * Opens the transaction of a connection in manual commit mode before its first write.
+   */
+  protected void beginTransaction(final String sql) {
+    if (!isQuery(sql) && !isSchemaChange(sql))
+      connection.beginTransaction();
+  }
+
+  /**
+   * Applies the options of the statement to a request before its execution: the max rows, the query timeout and the context that
+   * lets {@link #cancel()} stop it.
+   */
+  protected <T extends OCommandRequestAbstract & OCommandRequestText> T prepareRequest(final T request) {
+    return newContext().apply(limit(request));
+  }
+
+  protected OrientJdbcCommandContext newContext() {
+    context = new OrientJdbcCommandContext(queryTimeout * 1000L, connection.getTimeoutStrategy());
+    return context;
+  }
+
+  /**
+   * Translates an exception thrown by the execution of a command.
+   */
+  protected SQLException toSQLException(final OException e) {
+    if (e instanceof OCommandSQLParsingException)
+      return new SQLSyntaxErrorException("Error on parsing the query", e);
+    if (e instanceof OTimeoutException)
+      return new SQLTimeoutException("The execution exceeded the query timeout of " + queryTimeout + " seconds", e);
+
+    final OrientJdbcCommandContext current = context;
+    if (current != null && current.isCancelled())
+      return new SQLException("The execution of the statement has been cancelled", "HY008", e);
+    return new SQLException("Error on executing the command", e);
+  }
+
+  /**
+   * Pushes {@link #getMaxRows()} down to a query, so that the server stops as soon as enough records are found. A LIMIT in the text
+   * takes precedence over the limit of the request, so a greater top-level LIMIT is lowered to max rows, while a smaller one is
+   * kept. Commands other than SELECT and TRAVERSE are returned untouched.
+   */
+  protected <T extends OCommandRequestAbstract & OCommandRequestText> T limit(final T request) {
+    if (maxRows > 0 && isQuery(request.getText())) {
+      final String text = request.getText();
+      final int[] limit = findLimit(text);
+      if (limit != null && Integer.parseInt(text.substring(limit[0], limit[1])) > maxRows)
+        request.setText(text.substring(0, limit[0]) + maxRows + text.substring(limit[1]));
+      request.setLimit(maxRows);
+    }
+    return request;
+  }
+
+  /**
+   * Returns the bounds of the value of the LIMIT clause of the outer query, or null if there is none or its value is not a constant.
+   * LIMIT keywords in sub-queries and string literals are skipped.
+   */
+  private static int[] findLimit(final String sql) {
+    int depth = 0;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == '\\')
+          i++;
+        else if (c == quote)
+          quote = 0;
+      } else if (c == '\'' || c == '"')
+        quote = c;
+      else if (c == '(')
+        depth++;
+      else if (c == ')')
+        depth--;
+      else if (depth == 0 && i > 0 && Character.isWhitespace(sql.charAt(i - 1)) && sql.regionMatches(true, i, "limit", 0, 5)
+          && i + 5 < sql.length() && Character.isWhitespace(sql.charAt(i + 5))) {
+        int start = i + 5;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start)))
+          start++;
+        int end = start;
+        while (end < sql.length() && Character.isDigit(sql.charAt(end)))
+          end++;
+        return end > start && (end == sql.length() || !Character.isLetterOrDigit(sql.charAt(end))) ? new int[] { start, end } : null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Tells if the query can be read in pages of {@link #getFetchSize()} records: a fetch size must be set on a forward-only statement
+   * and the query must be a plain scan of a class.
+   */
+  protected boolean isPageable(final String sql) {
+    return fetchSize > 0 && resultSetType == ResultSet.TYPE_FORWARD_ONLY && OrientJdbcPagedCursor.isPageable(sql);
+  }
+
+  protected OrientJdbcResultSet executePaged(final String sql, final Object... iParams) throws SQLException {
+    return openCursor(new OrientJdbcPagedCursor(database, sql, fetchSize, maxRows, newContext(), iParams));
+  }
+
+  protected OrientJdbcResultSet executeStreaming(final OSQLAsynchQuery<ODocument> iQuery, final Object... iParams)
+      throws SQLException {
+    return openCursor(new OrientJdbcStreamingCursor(database, iQuery, connection.getStreamingBufferSize(), iParams));
+  }
+
+  private OrientJdbcResultSet openCursor(final OrientJdbcCursor cursor) throws SQLException {
+    try {
+      // WAIT FOR THE FIRST RECORD SO THAT ERRORS ARE REPORTED BY THE EXECUTION
+      cursor.hasNext();
+    } catch (OException e) {
+      cursor.close();
+      throw toSQLException(e);
+    }
+    return new OrientJdbcResultSet(this, cursor, resultSetType, resultSetConcurrency, resultSetHoldability);
+  }
+
+  /**
+   * Drops the records of the last query once its result set keeps them serialized out of the heap.
+   */
+  protected void releaseDocuments() {
+    if (connection.isOffHeapRowStore()) {
+      documents = emptyList();
+      rawResult = null;
+    }
+  }
+
+  protected void closeResultSet() throws SQLException {
+    if (resultSet != null && !resultSet.isClosed())
+      resultSet.close();
+  }
+
   public int executeUpdate(final String sql, int autoGeneratedKeys) throws SQLException {
     return 0;
   }
@@ -164,6 +426,7 @@ public class OrientJdbcStatement implements Statement {
   }
 
   public void close() throws SQLException {
+    closeResultSet();
     query = null;
     closed = true;
   }
@@ -184,7 +447,17 @@ public class OrientJdbcStatement implements Statement {
     batches.add(sql);
   }
 
+  /**
+   * Stops the command in execution, if any. The command notices the request the next time it reads a record and fails with an
+   * exception; a result set that is being read in pages or streamed fails at the next page or at the end of the buffered records.
+   * <p>
+   * On a remote database the command runs on the server, that does not see the request: only a result set read in pages stops, at
+   * its next page, while the other commands run to the end.
+   */
   public void cancel() throws SQLException {
+    final OrientJdbcCommandContext current = context;
+    if (current != null)
+      current.cancel();
   }
 
   public void clearBatch() throws SQLException {
@@ -195,14 +468,104 @@ public class OrientJdbcStatement implements Statement {
   }
 
   public int[] executeBatch() throws SQLException {
-    int[] results = new int[batches.size()];
-    int i = 0;
-    for (String sql : batches) {
-      results[i++] = executeUpdate(sql);
+    try {
+      final List<String> lines = new ArrayList<String>(batches.size());
+      for (String sql : batches) {
+        final String line = toScriptLine(sql);
+        if (line == null)
+          return executeBatchOneByOne();
+        lines.add(line);
+      }
+      return executeBatchScript(lines, Collections.<String, Object> emptyMap());
+    } finally {
+      batches.clear();
+    }
+  }
+
+  private int[] executeBatchOneByOne() throws SQLException {
+    final int[] results = new int[batches.size()];
+    for (int i = 0; i < results.length; i++) {
+      try {
+        results[i] = executeUpdate(batches.get(i));
+      } catch (SQLException e) {
+        throw new BatchUpdateException(e.getMessage(), Arrays.copyOf(results, i), e);
+      }
     }
     return results;
   }
 
+  /**
+   * Executes a batch of commands with a single SQL script, so a remote database is reached only once. Every command is assigned to
+   * a variable that the script returns, to know its update count. Unless a transaction is already active, as in manual commit mode,
+   * or the batch changes the schema, which is not transactional, the script runs in its own transaction, so either all the commands are applied or none.
+   */
+  protected int[] executeBatchScript(final List<String> commands, final Map<String, Object> params) throws SQLException {
+    if (commands.isEmpty())
+      return new int[0];
+
+    boolean schemaChange = false;
+    for (int i = 0; !schemaChange && i < commands.size(); i++)
+      schemaChange = isSchemaChange(commands.get(i));
+    if (!schemaChange)
+      connection.beginTransaction();
+
+    final boolean transaction = !schemaChange && !database.getTransaction().isActive();
+    final StringBuilder script = new StringBuilder(commands.size() * 64);
+    if (transaction)
+      script.append("begin\n");
+    for (int i = 0; i < commands.size(); i++)
+      script.append("let r").append(i).append(" = ").append(commands.get(i)).append('\n');
+    if (transaction)
+      script.append("commit\n");
+    script.append("return [");
+    for (int i = 0; i < commands.size(); i++)
+      script.append(i > 0 ? ", $r" : "$r").append(i);
+    script.append(']');
+
+    final Object result;
+    try {
+      query = prepareRequest(new OCommandScript("sql", script.toString()));
+      result = database.command(query).execute(params);
+    } catch (OException e) {
+      throw new BatchUpdateException(toSQLException(e).getMessage(), new int[0], e);
+    }
+
+    final int[] counts = new int[commands.size()];
+    if (result instanceof List<?> && ((List<?>) result).size() == counts.length) {
+      int i = 0;
+      for (Object commandResult : (List<?>) result)
+        counts[i++] = getUpdateCount(commandResult, SUCCESS_NO_INFO);
+    } else
+      Arrays.fill(counts, SUCCESS_NO_INFO);
+    return counts;
+  }
+
+  /**
+   * Returns the command as a line of a SQL script, or null if it cannot be part of a script: the lines of a script are the
+   * commands, so line breaks in quoted text cannot be kept.
+   */
+  protected static String toScriptLine(final String sql) {
+    final StringBuilder line = new StringBuilder(sql.length());
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == '\n' || c == '\r')
+          return null;
+        if (c == '\\' && i + 1 < sql.length()) {
+          line.append(c);
+          c = sql.charAt(++i);
+        } else if (c == quote)
+          quote = 0;
+      } else if (c == '\'' || c == '"' || c == '`')
+        quote = c;
+      else if (c == '\n' || c == '\r')
+        c = ' ';
+      line.append(c);
+    }
+    return line.toString().trim();
+  }
+
   public int getFetchDirection() throws SQLException {
 
     return 0;
@@ -213,12 +576,17 @@ public class OrientJdbcStatement implements Statement {
   }
 
   public int getFetchSize() throws SQLException {
-
-    return 0;
+    return fetchSize;
   }
 
+  /**
+   * Sets the number of records read at a time by forward-only result sets of plain class scans, see {@link #isPageable(String)}. 0
+   * (the default) reads the whole result at once.
+   */
   public void setFetchSize(final int rows) throws SQLException {
-
+    if (rows < 0)
+      throw new SQLException("The fetch size cannot be negative: " + rows);
+    fetchSize = rows;
   }
 
   public ResultSet getGeneratedKeys() throws SQLException {
@@ -236,12 +604,17 @@ public class OrientJdbcStatement implements Statement {
   }
 
   public int getMaxRows() throws SQLException {
-
-    return 0;
+    return maxRows;
   }
 
+  /**
+   * Sets the maximum number of rows returned by the queries of this statement. The limit is pushed down to the query, see
+   * {@link #limit(OCommandRequestAbstract)}. 0 (the default) means no limit.
+   */
   public void setMaxRows(final int max) throws SQLException {
-
+    if (max < 0)
+      throw new SQLException("The max rows cannot be negative: " + max);
+    maxRows = max;
   }
 
   public boolean getMoreResults() throws SQLException {
@@ -255,12 +628,18 @@ public class OrientJdbcStatement implements Statement {
   }
 
   public int getQueryTimeout() throws SQLException {
-
-    return 0;
+    return queryTimeout;
   }
 
+  /**
+   * Sets the time a command can run before it is stopped. What happens then depends on the <code>db.query.timeoutStrategy</code>
+   * property of the connection: <code>EXCEPTION</code> (the default) raises a {@link SQLTimeoutException}, <code>RETURN</code>
+   * returns the records found so far.
+   */
   public void setQueryTimeout(final int seconds) throws SQLException {
-
+    if (seconds < 0)
+      throw new SQLException("The query timeout cannot be negative: " + seconds);
+    queryTimeout = seconds;
   }
 
   public ResultSet getResultSet() throws SQLException {
@@ -297,17 +676,15 @@ public class OrientJdbcStatement implements Statement {
   }
 
   public boolean isClosed() throws SQLException {
-
-    return query == null;
+    return closed;
   }
 
   public boolean isPoolable() throws SQLException {
-
-    return false;
+    return poolable;
   }
 
   public void setPoolable(final boolean poolable) throws SQLException {
-
+    this.poolable = poolable;
   }
 
   public void setCursorName(final String name) throws SQLException {
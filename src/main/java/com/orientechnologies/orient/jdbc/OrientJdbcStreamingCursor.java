@@ -0,0 +1,158 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.orientechnologies.orient.core.command.OCommandResultListener;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
+
+/**
+ * Cursor fed by an {@link OSQLAsynchQuery} executed in a background thread against a copy of the connection's database. Records
+ * are handed off through a bounded buffer: when the buffer is full the query is suspended until the consumer catches up, so the
+ * memory used does not depend on the size of the result.
+ *
+ * The query runs in its own database instance, so it does not see changes pending in a transaction of the connection. The cursor
+ * must be closed, or fully consumed, to release the background thread.
+ */
+class OrientJdbcStreamingCursor implements OrientJdbcCursor, OCommandResultListener, Runnable {
+
+  private static final Object              END           = new Object();
+  private static final long                OFFER_WAIT_MS = 100;
+
+  private final ODatabaseDocumentTx        database;
+  private final OSQLAsynchQuery<ODocument> query;
+  private final Object[]                   params;
+  private final BlockingQueue<Object>      buffer;
+
+  private volatile boolean                 closed;
+  private volatile RuntimeException        error;
+  private ODocument                        next;
+  private boolean                          finished;
+
+  OrientJdbcStreamingCursor(final ODatabaseDocumentTx iDatabase, final OSQLAsynchQuery<ODocument> iQuery, final int iBufferSize,
+      final Object... iParams) {
+    database = iDatabase;
+    query = iQuery;
+    params = iParams;
+    buffer = new ArrayBlockingQueue<Object>(Math.max(1, iBufferSize));
+
+    query.setResultListener(this);
+
+    final Thread producer = new Thread(this, "OrientDB JDBC streaming query");
+    producer.setDaemon(true);
+    producer.start();
+  }
+
+  public void run() {
+    try {
+      final ODatabaseDocumentTx db = database.copy();
+      try {
+        db.query(query, params);
+      } finally {
+        db.close();
+      }
+    } catch (RuntimeException e) {
+      error = e;
+    } finally {
+      signalEnd();
+    }
+  }
+
+  public boolean result(final Object iRecord) {
+    final ODocument document = iRecord instanceof OIdentifiable ? (ODocument) ((OIdentifiable) iRecord).getRecord() : null;
+    if (document == null)
+      return !closed;
+
+    try {
+      while (!closed) {
+        if (buffer.offer(document, OFFER_WAIT_MS, TimeUnit.MILLISECONDS))
+          return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  public void end() {
+    // THE END IS SIGNALLED BY THE PRODUCER THREAD ONCE THE EXECUTION IS OVER: THE EXECUTOR CALLS end() ALSO WHEN IT FAILS, BEFORE THE
+    // ERROR REACHES run()
+  }
+
+  private void signalEnd() {
+    try {
+      // THE CONSUMER CAN BE STILL READING: WAIT FOR A FREE SLOT
+      while (!closed && !buffer.offer(END, OFFER_WAIT_MS, TimeUnit.MILLISECONDS))
+        ;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public boolean hasNext() {
+    if (next != null)
+      return true;
+    if (finished || closed)
+      return false;
+
+    final Object item;
+    try {
+      item = buffer.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OCommandExecutionException("Interrupted while waiting for the next record of the query '" + query.getText() + "'", e);
+    }
+
+    if (item == END) {
+      finished = true;
+      if (error != null)
+        throw error;
+      return false;
+    }
+
+    next = (ODocument) item;
+    return true;
+  }
+
+  public ODocument next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    final ODocument current = next;
+    next = null;
+    return current;
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException("remove");
+  }
+
+  public void close() {
+    closed = true;
+    next = null;
+    // UNBLOCK THE PRODUCER IF IT IS WAITING FOR A FREE SLOT
+    buffer.clear();
+  }
+}
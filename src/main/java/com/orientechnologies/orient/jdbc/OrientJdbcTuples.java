@@ -0,0 +1,54 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rows computed by the driver, as the ones of the database metadata, kept as arrays of values with a fixed set of columns. They
+ * are read by a result set without creating records, nor needing a database bound to the thread.
+ */
+final class OrientJdbcTuples {
+
+  private final OrientJdbcColumnIndex columns;
+  private final List<Object[]>        rows = new ArrayList<Object[]>();
+
+  OrientJdbcTuples(final String... iLabels) {
+    columns = new OrientJdbcColumnIndex(iLabels);
+  }
+
+  /**
+   * Appends a row with a value for every column, in the order of the columns.
+   */
+  OrientJdbcTuples add(final Object... values) {
+    if (values.length != columns.size())
+      throw new IllegalArgumentException("A row needs " + columns.size() + " values instead of " + values.length);
+    rows.add(values);
+    return this;
+  }
+
+  OrientJdbcColumnIndex getColumns() {
+    return columns;
+  }
+
+  List<Object[]> getRows() {
+    return Collections.unmodifiableList(rows);
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For more information: http://www.orientechnologies.com
+ */
+package com.orientechnologies.orient.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Data source that keeps the database sessions of the closed connections open, to hand them to the next connections. Connections
+ * asked with credentials other than the configured ones are not pooled.
+ * <p>
+ * The pool is created by the first {@link #getConnection()}, so it must be configured before. It holds at most
+ * {@link #setMaxSize(int) maxSize} sessions, keeps at most {@link #setMaxIdle(int) maxIdle} of them when they are given back and
+ * closes the ones idle for more than {@link #setIdleTimeout(long) idleTimeout} milliseconds, unless fewer than
+ * {@link #setMinIdle(int) minIdle} would be left. The counters of the pool are available to monitor it.
+ */
+public class OrientPooledDataSource extends OrientDataSource {
+
+  private int                               minIdle          = 0;
+  private int                               maxIdle          = 8;
+  private int                               maxSize          = 8;
+  private long                              maxWait          = 30000;
+  private long                              idleTimeout      = 600000;
+  private boolean                           validateOnBorrow = true;
+  private Properties                        info             = new Properties();
+
+  private volatile OrientJdbcConnectionPool pool;
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return getPool().getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (equals(username, getUsername()) && equals(password, getPassword()))
+      return getConnection();
+    return super.getConnection(username, password);
+  }
+
+  /**
+   * Closes the pool. The connections still open are closed normally.
+   */
+  public synchronized void close() {
+    if (pool != null) {
+      pool.close();
+      pool = null;
+    }
+  }
+
+  private synchronized OrientJdbcConnectionPool getPool() {
+    if (pool == null) {
+      final Properties poolInfo = new Properties();
+      poolInfo.putAll(info);
+      if (getUsername() != null)
+        poolInfo.put("user", getUsername());
+      if (getPassword() != null)
+        poolInfo.put("password", getPassword());
+      pool = new OrientJdbcConnectionPool(getUrl(), poolInfo, minIdle, Math.max(maxIdle, minIdle), Math.max(maxSize, 1), maxWait,
+          idleTimeout, validateOnBorrow);
+      pool.startEvictor();
+    }
+    return pool;
+  }
+
+  private static boolean equals(final String a, final String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  public int getMinIdle() {
+    return minIdle;
+  }
+
+  public void setMinIdle(int minIdle) {
+    this.minIdle = minIdle;
+  }
+
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  public void setMaxIdle(int maxIdle) {
+    this.maxIdle = maxIdle;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  /**
+   * Sets how many milliseconds {@link #getConnection()} waits for a session when all of them are in use.
+   */
+  public void setMaxWait(long maxWait) {
+    this.maxWait = maxWait;
+  }
+
+  public long getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  /**
+   * Sets after how many milliseconds an idle session is closed, 0 to keep the idle sessions open.
+   */
+  public void setIdleTimeout(long idleTimeout) {
+    this.idleTimeout = idleTimeout;
+  }
+
+  public boolean isValidateOnBorrow() {
+    return validateOnBorrow;
+  }
+
+  public void setValidateOnBorrow(boolean validateOnBorrow) {
+    this.validateOnBorrow = validateOnBorrow;
+  }
+
+  public Properties getInfo() {
+    return info;
+  }
+
+  /**
+   * Sets the properties of the connections, as <code>db.streaming</code> or <code>db.statementCacheSize</code>.
+   */
+  public void setInfo(Properties info) {
+    this.info = info;
+  }
+
+  /**
+   * Returns the number of connections in use.
+   */
+  public int getActiveConnections() {
+    final OrientJdbcConnectionPool current = pool;
+    return current != null ? current.getActive() : 0;
+  }
+
+  /**
+   * Returns the number of sessions ready for new connections.
+   */
+  public int getIdleConnections() {
+    final OrientJdbcConnectionPool current = pool;
+    return current != null ? current.getIdle() : 0;
+  }
+
+  /**
+   * Returns the number of threads waiting for a connection.
+   */
+  public int getWaitingThreads() {
+    final OrientJdbcConnectionPool current = pool;
+    return current != null ? current.getWaiting() : 0;
+  }
+
+  /**
+   * Returns the upper bounds, in milliseconds, of the buckets of {@link #getBorrowLatencyHistogram()}.
+   */
+  public long[] getBorrowLatencyBuckets() {
+    return OrientJdbcConnectionPool.LATENCY_BUCKETS.clone();
+  }
+
+  /**
+   * Returns how many connections were obtained within each bucket of {@link #getBorrowLatencyBuckets()}. The last element counts
+   * the connections that took longer than the last bound.
+   */
+  public long[] getBorrowLatencyHistogram() {
+    final OrientJdbcConnectionPool current = pool;
+    return current != null ? current.getBorrowLatencies() : new long[OrientJdbcConnectionPool.LATENCY_BUCKETS.length + 1];
+  }
+}
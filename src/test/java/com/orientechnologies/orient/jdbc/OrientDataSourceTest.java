@@ -1,13 +1,17 @@
 package com.orientechnologies.orient.jdbc;
 
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import org.junit.Test;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class OrientDataSourceTest extends OrientJdbcBaseTest {
 
@@ -27,4 +31,88 @@ public class OrientDataSourceTest extends OrientJdbcBaseTest {
 
   }
 
+  @Test
+  public void shouldReuseSessionsOfPooledConnections() throws Exception {
+    OrientPooledDataSource ds = newPooledDataSource();
+    ds.setMaxSize(2);
+    try {
+      OrientJdbcConnection first = (OrientJdbcConnection) ds.getConnection();
+      assertThat(ds.getActiveConnections(), equalTo(1));
+      first.close();
+      assertThat(first.isClosed(), is(true));
+      assertThat(ds.getActiveConnections(), equalTo(0));
+      assertThat(ds.getIdleConnections(), equalTo(1));
+
+      OrientJdbcConnection second = (OrientJdbcConnection) ds.getConnection();
+      assertThat(second, is(not(sameInstance(first))));
+      assertThat(second.getDatabase(), is(notNullValue()));
+      assertThat(second.createStatement().executeQuery("SELECT FROM Item").next(), is(true));
+      ODatabaseDocumentTx session = second.getDatabase();
+      assertThat(session.getLocalCache().getSize(), greaterThan(0));
+      second.close();
+      // THE RECORDS READ THROUGH A CONNECTION ARE NOT LEFT TO THE NEXT ONE
+      assertThat(session.getLocalCache().getSize(), equalTo(0));
+
+      long borrowed = 0;
+      for (long count : ds.getBorrowLatencyHistogram())
+        borrowed += count;
+      assertThat(borrowed, equalTo(2L));
+      assertThat(ds.getBorrowLatencyHistogram().length, equalTo(ds.getBorrowLatencyBuckets().length + 1));
+    } finally {
+      ds.close();
+    }
+  }
+
+  @Test
+  public void shouldWaitForPooledConnection() throws Exception {
+    OrientPooledDataSource ds = newPooledDataSource();
+    ds.setMaxSize(1);
+    ds.setMaxWait(100);
+    try {
+      Connection first = ds.getConnection();
+      try {
+        ds.getConnection();
+        fail("The pool should be exhausted");
+      } catch (SQLTransientConnectionException e) {
+        assertThat(ds.getWaitingThreads(), equalTo(0));
+      }
+      first.close();
+      ds.getConnection().close();
+    } finally {
+      ds.close();
+    }
+  }
+
+  @Test
+  public void shouldEvictIdleSessions() throws Exception {
+    Properties info = new Properties();
+    info.put("user", "admin");
+    info.put("password", "admin");
+    // THE EVICTOR IS NOT STARTED: THE TEST RUNS THE EVICTION ITSELF
+    OrientJdbcConnectionPool pool = new OrientJdbcConnectionPool("jdbc:orient:memory:test", info, 1, 8, 8, 1000, 60000, true);
+    try {
+      Connection first = pool.getConnection();
+      Connection second = pool.getConnection();
+      first.close();
+      second.close();
+      assertThat(pool.getIdle(), equalTo(2));
+
+      pool.evict(System.currentTimeMillis());
+      assertThat(pool.getIdle(), equalTo(2));
+
+      pool.evict(System.currentTimeMillis() + 120000);
+      assertThat(pool.getIdle(), equalTo(1));
+    } finally {
+      pool.close();
+    }
+  }
+
+  private OrientPooledDataSource newPooledDataSource() {
+    OrientPooledDataSource ds = new OrientPooledDataSource();
+    ds.setUrl("jdbc:orient:memory:test");
+    ds.setUsername("admin");
+    ds.setPassword("admin");
+    return ds;
+  }
+
 }
@@ -7,7 +7,9 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 
 import java.io.File;
+import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.Properties;
 
 import static com.orientechnologies.orient.jdbc.OrientDbCreationHelper.createSchemaDB;
@@ -47,11 +49,19 @@ public abstract class OrientJdbcBaseTest {
 
     loadDB(db, 20);
 
-    Properties info = new Properties();
-    info.put("user", username);
-    info.put("password", password);
+    conn = (OrientJdbcConnection) openConnection();
+  }
 
-    conn = (OrientJdbcConnection) DriverManager.getConnection("jdbc:orient:" + dbUrl, info);
+  /**
+   * Opens a connection to the test database, configured by the given property names each followed by its value.
+   */
+  protected static Connection openConnection(String... properties) throws SQLException {
+    Properties info = new Properties();
+    info.put("user", "admin");
+    info.put("password", "admin");
+    for (int i = 0; i < properties.length; i += 2)
+      info.put(properties[i], properties[i + 1]);
+    return DriverManager.getConnection("jdbc:orient:memory:test", info);
   }
 
   @After
@@ -1,9 +1,15 @@
 package com.orientechnologies.orient.jdbc;
 
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordLazyList;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.Is;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -15,9 +21,15 @@ import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.sql.Blob;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Iterator;
 
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.core.Is.is;
@@ -50,6 +62,20 @@ public class OrientJdbcBlobTest extends OrientJdbcBaseTest {
   }
 
 
+  @Test
+  public void shouldTellBlobTypeWithoutLoadingChunks() throws SQLException {
+    ResultSet rs = conn.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 1000000");
+    assertThat(rs.next(), is(true));
+
+    ResultSetMetaData metaData = rs.getMetaData();
+    assertThat(metaData.getColumnType(rs.findColumn("attachment")), is(Types.BLOB));
+
+    ORecordLazyList chunks = rs.unwrap(ODocument.class).field("attachment");
+    Iterator<OIdentifiable> iterator = chunks.rawIterator();
+    while (iterator.hasNext())
+      assertThat(iterator.next(), Matchers.not(Matchers.instanceOf(ORecord.class)));
+  }
+
   @Test
   public void shouldLoadChuckedBlob() throws SQLException, FileNotFoundException, IOException, NoSuchAlgorithmException {
     File binaryFile = getOutFile();
@@ -73,6 +99,174 @@ public class OrientJdbcBlobTest extends OrientJdbcBaseTest {
 
   }
 
+  @Test
+  public void shouldStreamChuckedBlob() throws SQLException, IOException, NoSuchAlgorithmException {
+    String digest = this.calculateMD5checksum(ClassLoader.getSystemResourceAsStream("file.pdf"));
+
+    PreparedStatement stmt = conn.prepareStatement("SELECT FROM Article WHERE uuid = 2 ");
+
+    ResultSet rs = stmt.executeQuery();
+    assertThat(rs.next(), is(true));
+
+    Blob blob = rs.getBlob("attachment");
+
+    assertThat(blob, notNullValue());
+    assertThat(this.calculateMD5checksum(blob.getBinaryStream()), is(digest));
+
+    byte[] tail = blob.getBytes(blob.length() - 9, 100);
+    assertThat(tail.length, is(10));
+    blob.free();
+  }
+
+  @Test
+  public void shouldReadChuckedBlobInBulk() throws SQLException, IOException {
+    PreparedStatement stmt = conn.prepareStatement("SELECT FROM Article WHERE uuid = 2 ");
+
+    ResultSet rs = stmt.executeQuery();
+    assertThat(rs.next(), is(true));
+
+    Blob blob = rs.getBlob("attachment");
+    byte[] expected = blob.getBytes(1, (int) blob.length());
+
+    InputStream stream = blob.getBinaryStream();
+    ByteArrayOutputStream read = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1000];
+    int count;
+    while ((count = stream.read(buffer, 0, buffer.length)) != -1)
+      read.write(buffer, 0, count);
+    assertThat(read.toByteArray(), is(expected));
+    assertThat(stream.available(), is(0));
+
+    stream = blob.getBinaryStream();
+    assertThat(stream.skip(expected.length - 10), is(expected.length - 10L));
+    assertThat(stream.read(), is(expected[expected.length - 10] & 0xFF));
+    assertThat(stream.skip(100), is(9L));
+    assertThat(stream.read(), is(-1));
+
+    stream = blob.getBinaryStream(2, expected.length);
+    read.reset();
+    assertThat(((OrientBlob.OrientBlobInputStream) stream).transferTo(read), is(expected.length - 1L));
+    assertThat(read.toByteArray()[0], is(expected[1]));
+  }
+
+  @Test
+  public void shouldStoreStreamedBlob() throws SQLException, IOException, NoSuchAlgorithmException {
+    String digest = this.calculateMD5checksum(ClassLoader.getSystemResourceAsStream("file.pdf"));
+
+    PreparedStatement stmt = conn.prepareStatement("INSERT INTO Article (uuid, attachment) VALUES (?, ?)");
+    stmt.setLong(1, 100000);
+    stmt.setBinaryStream(2, ClassLoader.getSystemResourceAsStream("file.pdf"));
+    assertThat(stmt.executeUpdate(), is(1));
+
+    Blob written = conn.createBlob();
+    assertThat(written.setBytes(1, new byte[] { 1, 2, 3 }), is(3));
+    assertThat(written.setBytes(4, new byte[] { 4 }), is(1));
+    stmt.setLong(1, 100001);
+    stmt.setBlob(2, written);
+    assertThat(stmt.executeUpdate(), is(1));
+
+    ResultSet rs = conn.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 100000");
+    assertThat(rs.next(), is(true));
+    Blob blob = rs.getBlob("attachment");
+    assertThat(blob.length(), is(163318L));
+    assertThat(this.calculateMD5checksum(blob.getBinaryStream()), is(digest));
+
+    rs = conn.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 100001");
+    assertThat(rs.next(), is(true));
+    assertThat(rs.getBlob("attachment").getBytes(1, 10), is(new byte[] { 1, 2, 3, 4 }));
+  }
+
+  @Test
+  public void shouldDeleteChunksNotLinked() throws SQLException {
+    ODatabaseDocumentTx db = conn.getDatabase();
+    long records = db.countClusterElements(db.getDefaultClusterId());
+
+    // THE UUID IS TAKEN ALREADY: THE INSERT FAILS
+    PreparedStatement stmt = conn.prepareStatement("INSERT INTO Article (uuid, attachment) VALUES (?, ?)");
+    stmt.setLong(1, 1);
+    stmt.setBinaryStream(2, ClassLoader.getSystemResourceAsStream("file.pdf"));
+    assertThat(db.countClusterElements(db.getDefaultClusterId()), Matchers.greaterThan(records));
+    try {
+      stmt.executeUpdate();
+      fail("The insert of a duplicate uuid should fail");
+    } catch (SQLException e) {
+    }
+    assertThat(db.countClusterElements(db.getDefaultClusterId()), is(records));
+
+    // THE STATEMENT IS CLOSED WITHOUT BEING EXECUTED
+    stmt.setBinaryStream(2, ClassLoader.getSystemResourceAsStream("file.pdf"));
+    stmt.close();
+    assertThat(db.countClusterElements(db.getDefaultClusterId()), is(records));
+
+    ResultSet rs = conn.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 1000000");
+    assertThat(rs.next(), is(true));
+    Blob blob = rs.getBlob("attachment");
+    try {
+      blob.setBytes(blob.length() + 1, new byte[] { 1 });
+      fail("A BLOB read from the database should not be written");
+    } catch (SQLFeatureNotSupportedException e) {
+    }
+  }
+
+  @Test
+  public void shouldFindPatternAcrossChunks() throws SQLException {
+    PreparedStatement stmt = conn.prepareStatement("SELECT FROM Article WHERE uuid = 2 ");
+
+    ResultSet rs = stmt.executeQuery();
+    assertThat(rs.next(), is(true));
+
+    Blob blob = rs.getBlob("attachment");
+    byte[] content = blob.getBytes(1, (int) blob.length());
+
+    // THE CHUNKS ARE 256 BYTES LONG: THE PATTERN SPANS THE FIRST BOUNDARY
+    byte[] pattern = Arrays.copyOfRange(content, 250, 262);
+    assertThat(blob.position(pattern, 1), is(251L));
+    assertThat(blob.position(new byte[] { '%', 'P', 'D', 'F' }, 1), is(1L));
+    assertThat(blob.position(new byte[] { '%', 'P', 'D', 'F' }, 2), is(-1L));
+    assertThat(blob.position(Arrays.copyOfRange(content, content.length - 5, content.length), 1),
+        is((long) content.length - 4));
+    assertThat(blob.position(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }, 1), is(-1L));
+  }
+
+  @Test
+  public void shouldReadSpilledBlob() throws SQLException, IOException, NoSuchAlgorithmException {
+    String digest = this.calculateMD5checksum(ClassLoader.getSystemResourceAsStream("file.pdf"));
+
+    Connection spilling = openConnection("db.blob.chunkCacheSize", "1", "db.blob.spillThreshold", "1000");
+    try {
+      ResultSet rs = spilling.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 1000000");
+      assertThat(rs.next(), is(true));
+
+      Blob blob = rs.getBlob("attachment");
+      byte[] content = blob.getBytes(1, (int) blob.length());
+      File spillFile = ((OrientBlob) blob).getSpillFile();
+      assertThat(spillFile, notNullValue());
+      assertThat(spillFile.length(), Matchers.greaterThan(0L));
+
+      // THE SECOND PASS READS THE CHUNKS PAST THE THRESHOLD FROM THE FILE
+      assertThat(this.calculateMD5checksum(blob.getBinaryStream()), is(digest));
+      assertThat(blob.getBytes(900, 300), is(Arrays.copyOfRange(content, 899, 1199)));
+
+      blob.free();
+      assertThat(spillFile.exists(), is(false));
+      assertThat(this.calculateMD5checksum(blob.getBinaryStream()), is(digest));
+      blob.free();
+
+      // THE CONNECTION FREES THE BLOBS THE CALLER DID NOT FREE
+      rs = spilling.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 1000000");
+      assertThat(rs.next(), is(true));
+      blob = rs.getBlob("attachment");
+      blob.getBytes(1, (int) blob.length());
+      rs.close();
+      spillFile = ((OrientBlob) blob).getSpillFile();
+      assertThat(spillFile.exists(), is(true));
+      spilling.close();
+      assertThat(spillFile.exists(), is(false));
+    } finally {
+      spilling.close();
+    }
+  }
+
   protected void createWorkingDirIfRequired() {
     new File(TEST_WORKING_DIR).mkdirs();
   }
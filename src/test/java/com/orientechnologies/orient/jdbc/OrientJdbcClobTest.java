@@ -0,0 +1,92 @@
+package com.orientechnologies.orient.jdbc;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class OrientJdbcClobTest extends OrientJdbcBaseTest {
+
+  @Test
+  public void shouldReadStringFieldAsClob() throws SQLException, IOException {
+    ResultSet rs = conn.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 1");
+    assertThat(rs.next(), is(true));
+
+    Clob clob = rs.getClob("content");
+    assertThat(clob.length(), is(11L));
+    assertThat(clob.getSubString(5, 3), is("con"));
+    assertThat(clob.position("tent", 1), is(8L));
+    assertThat(read(rs.getCharacterStream("content")), is("the content"));
+
+    assertThat(rs.getClob("missing"), nullValue());
+    assertThat(rs.wasNull(), is(true));
+  }
+
+  @Test
+  public void shouldStoreStreamedClob() throws SQLException, IOException {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 500; i++)
+      builder.append("line ").append(i).append(": caf\u00e9 \u20ac \ud83d\ude00\n");
+    String text = builder.toString();
+
+    // SMALL CHUNKS SPLIT THE MULTI-BYTE CHARACTERS ACROSS RECORDS
+    Connection chunking = openConnection("db.blob.chunkSize", "7");
+    try {
+      PreparedStatement stmt = chunking.prepareStatement("INSERT INTO Article (uuid, notes) VALUES (?, ?)");
+      stmt.setLong(1, 100000);
+      stmt.setCharacterStream(2, new StringReader(text));
+      assertThat(stmt.executeUpdate(), is(1));
+
+      Clob written = chunking.createClob();
+      assertThat(written.setString(1, "\u00e9t\u00e9"), is(3));
+      assertThat(written.setString(4, "!"), is(1));
+      assertThat(written.length(), is(4L));
+      stmt.setLong(1, 100001);
+      stmt.setClob(2, written);
+      assertThat(stmt.executeUpdate(), is(1));
+
+      ResultSet rs = chunking.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 100000");
+      assertThat(rs.next(), is(true));
+      assertThat(read(rs.getCharacterStream("notes")), is(text));
+
+      Clob clob = rs.getClob("notes");
+      assertThat(clob.length(), is((long) text.length()));
+      assertThat(clob.getSubString(100, 50), is(text.substring(99, 149)));
+
+      // ITS DOCUMENT WOULD NOT LINK THE CHUNKS APPENDED
+      try {
+        clob.setString(text.length() + 1, "\u00e9nd");
+        fail("A CLOB read from the database should not be written");
+      } catch (SQLFeatureNotSupportedException e) {
+      }
+
+      rs = chunking.createStatement().executeQuery("SELECT FROM Article WHERE uuid = 100001");
+      assertThat(rs.next(), is(true));
+      assertThat(rs.getClob("notes").getSubString(1, 10), is("\u00e9t\u00e9!"));
+    } finally {
+      chunking.close();
+    }
+  }
+
+  private static String read(Reader reader) throws IOException {
+    StringBuilder read = new StringBuilder();
+    char[] buffer = new char[100];
+    int count;
+    while ((count = reader.read(buffer)) != -1)
+      read.append(buffer, 0, count);
+    reader.close();
+    return read.toString();
+  }
+}
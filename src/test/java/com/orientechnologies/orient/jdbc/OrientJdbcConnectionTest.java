@@ -2,6 +2,9 @@ package com.orientechnologies.orient.jdbc;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
 
@@ -11,6 +14,7 @@ import org.junit.Test;
 import static java.sql.ResultSet.CONCUR_READ_ONLY;
 import static java.sql.ResultSet.HOLD_CURSORS_OVER_COMMIT;
 import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.*;
@@ -38,6 +42,44 @@ public class OrientJdbcConnectionTest extends OrientJdbcBaseTest {
     // conn.getTransactionIsolation());
   }
 
+  @Test
+  public void shouldCommitChangesOfManualCommitMode() throws Exception {
+    conn.setAutoCommit(false);
+    assertFalse(conn.getAutoCommit());
+
+    Statement stmt = conn.createStatement();
+    stmt.executeUpdate("INSERT INTO Item (intKey, text) VALUES (100, 'transaction')");
+    PreparedStatement insert = conn.prepareStatement("INSERT INTO Item (intKey, text) VALUES (?, 'transaction')");
+    insert.setInt(1, 101);
+    insert.addBatch();
+    insert.setInt(1, 102);
+    insert.addBatch();
+    insert.executeBatch();
+    conn.commit();
+
+    conn.setAutoCommit(true);
+    assertThat(count(stmt.executeQuery("SELECT FROM Item WHERE text = 'transaction'")), equalTo(3));
+  }
+
+  @Test
+  public void shouldDiscardChangesOfManualCommitMode() throws Exception {
+    conn.setAutoCommit(false);
+    Statement stmt = conn.createStatement();
+    stmt.executeUpdate("INSERT INTO Item (intKey, text) VALUES (100, 'transaction')");
+    stmt.executeUpdate("DELETE FROM Item WHERE intKey < 5");
+    conn.rollback();
+
+    conn.setAutoCommit(true);
+    assertThat(count(stmt.executeQuery("SELECT FROM Item")), equalTo(20));
+
+    // THE CHANGES NOT COMMITTED ARE LOST ON CLOSE
+    conn.setAutoCommit(false);
+    conn.createStatement().executeUpdate("DELETE FROM Item");
+    conn.close();
+    conn = (OrientJdbcConnection) DriverManager.getConnection("jdbc:orient:memory:test", "admin", "admin");
+    assertThat(count(conn.createStatement().executeQuery("SELECT FROM Item")), equalTo(20));
+  }
+
   @Test
   public void shouldCreateDifferentTypeOfStatement() throws Exception {
     Statement stmt = conn.createStatement();
@@ -64,4 +106,29 @@ public class OrientJdbcConnectionTest extends OrientJdbcBaseTest {
     connection.close();
   }
 
+  @Test
+  public void shouldRejectInvalidProperties() throws Exception {
+    String[][] invalid = { { "db.query.timeoutStrategy", "WAIT" }, { "db.blob.chunkSize", "64K" }, { "db.blob.chunkSize", "0" },
+        { "db.blob.spillThreshold", "-1" }, { "db.query.rowStore", "disk" }, { "db.statementCacheSize", "" } };
+    for (String[] property : invalid) {
+      try {
+        openConnection(property[0], property[1]).close();
+        fail("The connection with " + property[0] + "=" + property[1] + " should fail");
+      } catch (SQLException e) {
+        assertThat(e.getMessage(), Matchers.containsString(property[0]));
+      }
+    }
+
+    Connection connection = openConnection("db.query.timeoutStrategy", "return", "db.query.rowStore", "OFFHEAP");
+    assertThat(((OrientJdbcConnection) connection).isOffHeapRowStore(), is(true));
+    connection.close();
+  }
+
+  private int count(ResultSet rs) throws SQLException {
+    int count = 0;
+    while (rs.next())
+      count++;
+    return count;
+  }
+
 }
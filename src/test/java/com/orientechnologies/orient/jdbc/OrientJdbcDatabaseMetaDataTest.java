@@ -1,6 +1,7 @@
 package com.orientechnologies.orient.jdbc;
 
 import com.orientechnologies.orient.core.OConstants;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -8,6 +9,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -18,6 +20,7 @@ import java.util.Set;
 
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -67,6 +70,25 @@ public class OrientJdbcDatabaseMetaDataTest extends OrientJdbcBaseTest {
 
   }
 
+  @Test
+  public void shouldRetrieveIndexInfo() throws SQLException {
+    Map<String, Boolean> nonUnique = new HashMap<String, Boolean>();
+    ResultSet indexes = metaData.getIndexInfo(null, null, "Item", false, false);
+    while (indexes.next())
+      nonUnique.put(indexes.getString("INDEX_NAME"), indexes.getBoolean("NON_UNIQUE"));
+    assertEquals(Boolean.FALSE, nonUnique.get("Item.intKey"));
+    assertEquals(Boolean.TRUE, nonUnique.get("Item.date"));
+
+    conn.createStatement().execute("CREATE INDEX Item.hashed ON Item (title, author) UNIQUE_HASH_INDEX");
+    Set<String> unique = new HashSet<String>();
+    indexes = metaData.getIndexInfo(null, null, "Item", true, false);
+    while (indexes.next()) {
+      assertFalse(indexes.getBoolean("NON_UNIQUE"));
+      unique.add(indexes.getString("INDEX_NAME"));
+    }
+    assertEquals(new HashSet<String>(Arrays.asList("Item.intKey", "Item.stringKey", "Item.hashed")), unique);
+  }
+
   @Test
   public void shouldRetrieveTableTypes() throws SQLException {
 
@@ -184,6 +206,85 @@ public class OrientJdbcDatabaseMetaDataTest extends OrientJdbcBaseTest {
     assertThat(rsSizeOf(rs),is(5));
   }
 
+  @Test
+  public void shouldNotShareStatementsBetweenResultSets() throws SQLException {
+    ResultSet rs = metaData.getColumns(null, null, "Article", null);
+    rs.getStatement().setMaxRows(1);
+    rs.getStatement().close();
+
+    rs = metaData.getColumns(null, null, "Article", null);
+    assertThat(rs.getStatement().isClosed(), is(false));
+    assertThat(rsSizeOf(rs), is(5));
+  }
+
+  @Test
+  public void shouldReadTypeInfoWithoutDatabaseOnThread() throws SQLException {
+    ResultSet rs = metaData.getTypeInfo();
+    ResultSetMetaData rsMetaData = rs.getMetaData();
+    assertEquals(6, rsMetaData.getColumnCount());
+    assertEquals("UNSIGNED_ATTRIBUTE", rsMetaData.getColumnName(5));
+    assertEquals(Types.VARCHAR, rsMetaData.getColumnType(1));
+
+    ODatabaseRecordThreadLocal.INSTANCE.remove();
+    try {
+      assertTrue(rs.next());
+      assertEquals("BINARY", rs.getString("TYPE_NAME"));
+      assertEquals(Types.BINARY, rs.getInt("DATA_TYPE"));
+      assertTrue(rs.getBoolean("SEARCHABLE"));
+      assertFalse(rs.getBoolean("UNSIGNED_ATTRIBUTE"));
+      assertTrue(rs.wasNull());
+      assertThat(rsSizeOf(rs), is(14));
+    } finally {
+      ODatabaseRecordThreadLocal.INSTANCE.set(conn.getDatabase());
+    }
+  }
+
+  @Test
+  public void shouldMatchTablesAndColumnsWithPatterns() throws SQLException {
+    assertThat(rsSizeOf(metaData.getTables(null, null, "art%", null)), is(1));
+    assertThat(rsSizeOf(metaData.getTables(null, null, "O%", null)), is(8));
+    assertThat(rsSizeOf(metaData.getTables(null, null, "_tem", null)), is(1));
+
+    ResultSet rs = metaData.getColumns(null, null, "A%", "uuid");
+    Set<String> tables = new HashSet<String>();
+    while (rs.next()) {
+      assertEquals("uuid", rs.getString("COLUMN_NAME"));
+      tables.add(rs.getString("TABLE_NAME"));
+    }
+    assertEquals(new HashSet<String>(Arrays.asList("Article", "Author")), tables);
+
+    assertThat(rsSizeOf(metaData.getColumns(null, null, "Item", "%Key")), is(2));
+    assertThat(rsSizeOf(metaData.getColumns(null, null, "Item", "int\\_Key")), is(0));
+
+    // AN UNESCAPED _ WOULD MATCH BOTH THE PROPERTIES
+    conn.createStatement().execute("CREATE CLASS Escaped");
+    conn.createStatement().execute("CREATE PROPERTY Escaped.int_Key INTEGER");
+    conn.createStatement().execute("CREATE PROPERTY Escaped.intXKey INTEGER");
+    assertThat(rsSizeOf(metaData.getColumns(null, null, "Escaped", "int_Key")), is(2));
+    rs = metaData.getColumns(null, null, "Escaped", "int\\_Key");
+    assertThat(rs.next(), is(true));
+    assertEquals("int_Key", rs.getString("COLUMN_NAME"));
+    assertThat(rs.next(), is(false));
+  }
+
+  @Test
+  public void shouldRefreshSnapshotWhenSchemaChanges() throws SQLException {
+    OrientJdbcMetaDataSnapshot snapshot = OrientJdbcMetaDataSnapshot.of(conn.getDatabase());
+    assertThat(OrientJdbcMetaDataSnapshot.of(conn.getDatabase()), is(sameInstance(snapshot)));
+
+    conn.createStatement().execute("CREATE CLASS Gadget");
+    assertThat(rsSizeOf(metaData.getTables(null, null, null, null)), is(12));
+
+    conn.createStatement().execute("CREATE PROPERTY Gadget.serial STRING");
+    assertThat(rsSizeOf(metaData.getColumns(null, null, "Gadget", null)), is(1));
+    assertThat(rsSizeOf(metaData.getPrimaryKeys(null, null, "Gadget")), is(0));
+
+    conn.createStatement().execute("CREATE INDEX Gadget.serial UNIQUE");
+    ResultSet primaryKeys = metaData.getPrimaryKeys(null, null, "Gadget");
+    assertTrue(primaryKeys.next());
+    assertEquals("serial", primaryKeys.getString("COLUMN_NAME"));
+  }
+
   @Test
   //FIXME this is not a test: what is the target?
   public void shouldGetAllFields() throws SQLException {
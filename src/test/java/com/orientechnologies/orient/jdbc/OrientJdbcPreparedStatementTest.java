@@ -2,6 +2,8 @@ package com.orientechnologies.orient.jdbc;
 
 import org.junit.Test;
 
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -117,4 +119,135 @@ public class OrientJdbcPreparedStatementTest extends OrientJdbcBaseTest {
     ResultSet resultSet = conn.createStatement().executeQuery("SELECT count(*) FROM insertable WHERE id = 'someRandomUid'");
     assertThat(resultSet.getInt(1), equalTo(1));
   }
+
+  @Test
+  public void shouldReuseCachedStatements() throws Exception {
+    Connection cachingConn = openConnection("db.statementCacheSize", "2");
+    try {
+      PreparedStatement stmt = cachingConn.prepareStatement("SELECT FROM Item WHERE intKey > ?");
+      assertThat(stmt.isPoolable(), is(true));
+      stmt.setInt(1, 10);
+      stmt.setMaxRows(3);
+      ResultSet rs = stmt.executeQuery();
+      assertThat(count(rs), equalTo(3));
+      stmt.close();
+      assertThat(stmt.isClosed(), is(true));
+      assertThat(rs.isClosed(), is(true));
+
+      PreparedStatement reused = cachingConn.prepareStatement("SELECT FROM Item WHERE intKey > ?");
+      assertThat(reused, is(not(sameInstance(stmt))));
+      assertThat(reused.isClosed(), is(false));
+      assertThat(reused.getMaxRows(), equalTo(0));
+      reused.setInt(1, 15);
+      rs = reused.executeQuery();
+
+      // THE CLOSED STATEMENT STAYS CLOSED AND CANNOT REACH THE NEW ONE
+      assertThat(stmt.isClosed(), is(true));
+      try {
+        stmt.executeQuery();
+        fail("The closed statement should not execute");
+      } catch (SQLException e) {
+      }
+      stmt.close();
+      assertThat(rs.isClosed(), is(false));
+      assertThat(count(rs), equalTo(5));
+
+      reused.close();
+      PreparedStatement another = cachingConn.prepareStatement("SELECT FROM Item WHERE intKey > ?");
+      another.setInt(1, 18);
+      assertThat(count(another.executeQuery()), equalTo(2));
+      assertThat(reused.isClosed(), is(true));
+
+      // A NOT POOLABLE STATEMENT IS NOT CACHED
+      PreparedStatement notPoolable = cachingConn.prepareStatement("SELECT FROM Item");
+      notPoolable.setPoolable(false);
+      notPoolable.close();
+      assertThat(cachingConn.prepareStatement("SELECT FROM Item"), is(not(sameInstance(notPoolable))));
+    } finally {
+      cachingConn.close();
+    }
+  }
+
+  @Test
+  public void shouldNotCacheStatementsByDefault() throws Exception {
+    PreparedStatement stmt = conn.prepareStatement("SELECT FROM Item");
+    stmt.close();
+    assertThat(conn.prepareStatement("SELECT FROM Item"), is(not(sameInstance(stmt))));
+  }
+
+  @Test
+  public void shouldBindParametersByPosition() throws Exception {
+    PreparedStatement stmt = conn.prepareStatement("SELECT FROM Item WHERE text <> '?' AND intKey > ? AND intKey < ?");
+    assertThat(stmt.getParameterMetaData().getParameterCount(), equalTo(2));
+    stmt.setInt(2, 10);
+    stmt.setInt(1, 5);
+    assertThat(count(stmt.executeQuery()), equalTo(4));
+
+    stmt.clearParameters();
+    stmt.setInt(1, 0);
+    stmt.setInt(2, 3);
+    assertThat(count(stmt.executeQuery()), equalTo(2));
+  }
+
+  @Test(expected = SQLException.class)
+  public void shouldRejectParameterIndexOutOfRange() throws Exception {
+    conn.prepareStatement("SELECT FROM Item WHERE intKey = ?").setInt(2, 1);
+  }
+
+  @Test
+  public void shouldExecuteBatchOfParameters() throws Exception {
+    conn.createStatement().executeQuery("CREATE CLASS Insertable ");
+
+    PreparedStatement stmt = conn.prepareStatement("INSERT INTO Insertable (id, text) VALUES (?, 'a ? b')");
+    for (int i = 0; i < 3; i++) {
+      stmt.setInt(1, i);
+      stmt.addBatch();
+    }
+    assertThat(stmt.executeBatch(), equalTo(new int[] { 1, 1, 1 }));
+
+    ResultSet rs = conn.createStatement().executeQuery("SELECT FROM Insertable WHERE text = 'a ? b' ORDER BY id");
+    for (int i = 0; i < 3; i++) {
+      assertThat(rs.next(), is(true));
+      assertThat(rs.getInt("id"), equalTo(i));
+    }
+    assertThat(rs.next(), is(false));
+
+    PreparedStatement update = conn.prepareStatement("UPDATE Insertable SET text = ? WHERE id >= ?");
+    update.setString(1, "x");
+    update.setInt(2, 1);
+    update.addBatch();
+    update.setString(1, "y");
+    update.setInt(2, 5);
+    update.addBatch();
+    assertThat(update.executeBatch(), equalTo(new int[] { 2, 0 }));
+    // THE BATCH IS RESET AFTER THE EXECUTION
+    assertThat(update.executeBatch().length, equalTo(0));
+  }
+
+  @Test
+  public void shouldNotApplyFailedBatch() throws Exception {
+    conn.createStatement().executeQuery("CREATE CLASS Insertable ");
+    conn.createStatement().executeQuery("CREATE PROPERTY Insertable.id INTEGER");
+    conn.createStatement().executeQuery("CREATE INDEX Insertable.id UNIQUE");
+
+    PreparedStatement stmt = conn.prepareStatement("INSERT INTO Insertable (id) VALUES (?)");
+    stmt.setInt(1, 1);
+    stmt.addBatch();
+    stmt.setInt(1, 1);
+    stmt.addBatch();
+    try {
+      stmt.executeBatch();
+      fail("The batch should fail on the duplicated key");
+    } catch (BatchUpdateException e) {
+      assertThat(e.getUpdateCounts().length, equalTo(0));
+    }
+    assertThat(count(conn.createStatement().executeQuery("SELECT FROM Insertable")), equalTo(0));
+  }
+
+  private int count(ResultSet rs) throws SQLException {
+    int count = 0;
+    while (rs.next())
+      count++;
+    return count;
+  }
 }
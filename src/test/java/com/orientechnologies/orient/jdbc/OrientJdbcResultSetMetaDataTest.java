@@ -147,4 +147,39 @@ public class OrientJdbcResultSetMetaDataTest extends OrientJdbcBaseTest {
 
   }
 
+  @Test
+  public void shouldSnapshotMetadataOnce() throws Exception {
+    Statement stmt = conn.createStatement();
+    ResultSet rs = stmt.executeQuery("SELECT FROM Author");
+
+    ResultSetMetaData metaData = rs.getMetaData();
+    assertThat(rs.getMetaData(), is(sameInstance(metaData)));
+
+    int rating = rs.findColumn("rating");
+    assertThat(metaData.getColumnName(rating), equalTo("rating"));
+    assertThat(metaData.getColumnType(rating), equalTo(Types.DECIMAL));
+    assertThat(metaData.getColumnTypeName(rating), equalTo("DOUBLE"));
+    assertThat(metaData.getTableName(rating), equalTo("Author"));
+    assertThat(metaData.isSigned(rating), is(true));
+
+    // THE METADATA DOES NOT DEPEND ON THE CURRENT RECORD
+    rs.last();
+    assertThat(metaData.getColumnName(rating), equalTo("rating"));
+    rs.close();
+    assertThat(metaData.getColumnType(rating), equalTo(Types.DECIMAL));
+
+    try {
+      metaData.getColumnType(metaData.getColumnCount() + 1);
+      fail("The column should be out of range");
+    } catch (SQLException e) {
+      assertThat(e.getMessage(), containsString("out of range"));
+    }
+  }
+
+  @Test
+  public void shouldDescribeEmptyResultSet() throws Exception {
+    ResultSet rs = conn.createStatement().executeQuery("SELECT FROM Item WHERE intKey < 0");
+    assertThat(rs.getMetaData().getColumnCount(), equalTo(0));
+  }
+
 }
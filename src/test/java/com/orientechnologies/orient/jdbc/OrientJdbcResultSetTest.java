@@ -2,13 +2,19 @@ package com.orientechnologies.orient.jdbc;
 
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FilenameFilter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Types;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class OrientJdbcResultSetTest extends OrientJdbcBaseTest {
 
@@ -51,6 +57,62 @@ public class OrientJdbcResultSetTest extends OrientJdbcBaseTest {
     assertThat(10, equalTo(count));
   }
 
+  @Test
+  public void shouldFindColumnsIgnoringCase() throws Exception {
+
+    ResultSet rs = conn.createStatement().executeQuery("SELECT stringKey, intKey, text, length, date FROM Item WHERE intKey = 3");
+    assertThat(rs.next(), is(true));
+
+    assertThat(rs.findColumn("stringKey"), equalTo(1));
+    assertThat(rs.findColumn("date"), equalTo(5));
+    assertThat(rs.findColumn("INTKEY"), equalTo(2));
+    assertThat(rs.getInt("IntKey"), equalTo(3));
+    assertThat(rs.getString("STRINGKEY"), equalTo("3"));
+    assertThat(rs.getLong("length"), equalTo(rs.getLong(4)));
+    try {
+      rs.findColumn("missing");
+      fail("The column should not be found");
+    } catch (SQLException e) {
+      assertThat(e.getMessage(), containsString("missing"));
+    }
+    try {
+      rs.getString(6);
+      fail("The column index should be out of range");
+    } catch (SQLException e) {
+      assertThat(e.getMessage(), containsString("out of range"));
+    }
+  }
+
+  @Test
+  public void shouldReadPrimitivesAndTrackNulls() throws Exception {
+
+    ResultSet rs = conn.createStatement().executeQuery(
+        "SELECT intKey, length, stringKey, published, title, date FROM Item WHERE intKey = 4");
+    assertThat(rs.next(), is(true));
+
+    assertThat(rs.getInt("intKey"), equalTo(4));
+    assertThat(rs.wasNull(), is(false));
+    assertThat(rs.getLong("intKey"), equalTo(4L));
+    assertThat(rs.getShort("intKey"), equalTo((short) 4));
+    assertThat(rs.getDouble("intKey"), equalTo(4d));
+    assertThat(rs.getFloat("length"), equalTo((float) rs.getLong("length")));
+    // VALUES NOT STORED AS NUMBERS ARE CONVERTED
+    assertThat(rs.getInt("stringKey"), equalTo(4));
+    assertThat(rs.getBoolean("published"), is(false));
+    assertThat(rs.wasNull(), is(false));
+
+    rs = conn.createStatement().executeQuery("SELECT intKey, missing FROM Item WHERE intKey = 4");
+    assertThat(rs.next(), is(true));
+    assertThat(rs.getInt("missing"), equalTo(0));
+    assertThat(rs.wasNull(), is(true));
+    assertThat(rs.getInt("intKey"), equalTo(4));
+    assertThat(rs.wasNull(), is(false));
+    assertThat(rs.getTimestamp("missing"), is(nullValue()));
+    assertThat(rs.wasNull(), is(true));
+    assertThat(rs.getBoolean("missing"), is(false));
+    assertThat(rs.wasNull(), is(true));
+  }
+
   @Test
   public void shouldReturnEmptyResultSet() throws Exception {
 
@@ -58,4 +120,197 @@ public class OrientJdbcResultSetTest extends OrientJdbcBaseTest {
 
     assertThat(rs.next(), is(false));
   }
+
+  @Test
+  public void shouldStreamForwardOnlyResultSet() throws Exception {
+    Connection streamingConn = openStreamingConnection();
+    try {
+      ResultSet rs = streamingConn.createStatement().executeQuery("SELECT intKey FROM Item ORDER BY intKey");
+      int count = 0;
+      while (rs.next()) {
+        count++;
+        assertThat(rs.getInt("intKey"), equalTo(count));
+      }
+      assertThat(count, equalTo(20));
+      assertThat(rs.isAfterLast(), is(true));
+      rs.close();
+      assertThat(rs.isClosed(), is(true));
+    } finally {
+      streamingConn.close();
+    }
+  }
+
+  @Test
+  public void shouldStreamPreparedStatementResultSet() throws Exception {
+    Connection streamingConn = openStreamingConnection();
+    try {
+      PreparedStatement stmt = streamingConn.prepareStatement("SELECT intKey FROM Item WHERE intKey > ? ORDER BY intKey");
+      stmt.setInt(1, 15);
+      ResultSet rs = stmt.executeQuery();
+      int count = 0;
+      while (rs.next())
+        assertThat(rs.getInt(1), equalTo(15 + ++count));
+      assertThat(count, equalTo(5));
+    } finally {
+      streamingConn.close();
+    }
+  }
+
+  @Test(expected = SQLException.class)
+  public void shouldNotScrollStreamedResultSet() throws Exception {
+    Connection streamingConn = openStreamingConnection();
+    try {
+      ResultSet rs = streamingConn.createStatement().executeQuery("SELECT FROM Item");
+      rs.next();
+      rs.first();
+    } finally {
+      streamingConn.close();
+    }
+  }
+
+  @Test
+  public void shouldCloseStreamedResultSetBeforeTheEnd() throws Exception {
+    Connection streamingConn = openStreamingConnection();
+    try {
+      ResultSet rs = streamingConn.createStatement().executeQuery("SELECT FROM Article");
+      assertThat(rs.next(), is(true));
+      rs.close();
+      assertThat(rs.isClosed(), is(true));
+    } finally {
+      streamingConn.close();
+    }
+  }
+
+  @Test
+  public void shouldTakeColumnsFromTheSchema() throws Exception {
+    Connection schemaConn = openConnection("db.query.schemaColumns", "true");
+    try {
+      ResultSet rs = schemaConn.createStatement().executeQuery("SELECT FROM Item WHERE false = true");
+      ResultSetMetaData metaData = rs.getMetaData();
+      assertThat(metaData.getColumnCount(), equalTo(10));
+      assertThat(metaData.getColumnName(1), equalTo("author"));
+      assertThat(metaData.getColumnName(10), equalTo("title"));
+      assertThat(rs.next(), is(false));
+
+      PreparedStatement stmt = schemaConn.prepareStatement("SELECT * FROM Item WHERE intKey = ?");
+      stmt.setInt(1, 3);
+      rs = stmt.executeQuery();
+      assertThat(rs.next(), is(true));
+      assertThat(rs.findColumn("intKey"), equalTo(3));
+      assertThat(rs.getInt(3), equalTo(3));
+      assertThat(rs.getString("stringKey"), equalTo("3"));
+
+      // PROJECTIONS KEEP THE FIELDS OF THE RECORDS
+      rs = schemaConn.createStatement().executeQuery("SELECT intKey, text FROM Item");
+      assertThat(rs.getMetaData().getColumnCount(), equalTo(2));
+    } finally {
+      schemaConn.close();
+    }
+  }
+
+  @Test
+  public void shouldScrollBackInMemory() throws Exception {
+    ResultSet rs = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).executeQuery(
+        "SELECT intKey FROM Item ORDER BY intKey");
+    assertThat(rs.next(), is(true));
+    assertThat(rs.next(), is(true));
+    assertThat(rs.previous(), is(true));
+    assertThat(rs.getInt("intKey"), equalTo(1));
+    assertThat(rs.previous(), is(false));
+    assertThat(rs.isBeforeFirst(), is(true));
+    assertThat(rs.isAfterLast(), is(false));
+  }
+
+  @Test
+  public void shouldScrollStoredResultSet() throws Exception {
+    Connection storingConn = openConnection("db.query.rowStore", "file", "db.streaming.bufferSize", "2");
+    try {
+      ResultSet rs = storingConn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).executeQuery(
+          "SELECT FROM Item ORDER BY intKey");
+      assertThat(rs.next(), is(true));
+      assertThat(rs.next(), is(true));
+      assertThat(rs.next(), is(true));
+      assertThat(rs.previous(), is(true));
+      assertThat(rs.getInt("intKey"), equalTo(2));
+      assertThat(rs.getString("stringKey"), equalTo("2"));
+      assertThat(rs.getString("@rid"), startsWith("#"));
+
+      assertThat(rs.last(), is(true));
+      assertThat(rs.isLast(), is(true));
+      assertThat(rs.getInt("intKey"), equalTo(20));
+
+      assertThat(rs.absolute(9), is(true));
+      assertThat(rs.getInt("intKey"), equalTo(10));
+      assertThat(rs.relative(-5), is(true));
+      assertThat(rs.getInt("intKey"), equalTo(5));
+
+      rs.afterLast();
+      assertThat(rs.isAfterLast(), is(true));
+      assertThat(rs.previous(), is(true));
+      assertThat(rs.getInt("intKey"), equalTo(20));
+      assertThat(rs.first(), is(true));
+      assertThat(rs.getInt("intKey"), equalTo(1));
+
+      rs.close();
+      assertThat(rs.isClosed(), is(true));
+
+      // THE FILE OF A RESULT SET NOT CLOSED IS DELETED WITH THE CONNECTION
+      int files = countRowFiles();
+      rs = storingConn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).executeQuery(
+          "SELECT FROM Item");
+      assertThat(rs.last(), is(true));
+      assertThat(countRowFiles(), equalTo(files + 1));
+      storingConn.close();
+      assertThat(countRowFiles(), equalTo(files));
+    } finally {
+      storingConn.close();
+    }
+  }
+
+  @Test
+  public void shouldReadOffHeapRows() throws Exception {
+    Connection offHeapConn = openConnection("db.query.rowStore", "offHeap");
+    try {
+      // A ROW LARGER THAN A SEGMENT OF THE ARENA
+      StringBuilder text = new StringBuilder();
+      while (text.length() < 300000)
+        text.append("0123456789");
+      PreparedStatement insert = offHeapConn.prepareStatement("INSERT INTO Item (intKey, text) VALUES (?, ?)");
+      insert.setInt(1, 100000);
+      insert.setString(2, text.toString());
+      assertThat(insert.executeUpdate(), equalTo(1));
+
+      ResultSet rs = offHeapConn.createStatement().executeQuery("SELECT FROM Item ORDER BY intKey");
+      assertThat(rs.getMetaData().getColumnCount(), greaterThan(0));
+      int count = 0;
+      while (rs.next()) {
+        count++;
+        if (count <= 20)
+          assertThat(rs.getInt("intKey"), equalTo(count));
+      }
+      assertThat(count, equalTo(21));
+      assertThat(rs.previous(), is(true));
+      assertThat(rs.getString("text"), equalTo(text.toString()));
+      assertThat(rs.previous(), is(true));
+      assertThat(rs.getInt("intKey"), equalTo(20));
+
+      rs.close();
+      assertThat(rs.isClosed(), is(true));
+    } finally {
+      offHeapConn.close();
+    }
+  }
+
+  private Connection openStreamingConnection() throws SQLException {
+    return openConnection("db.streaming", "true", "db.streaming.bufferSize", "2");
+  }
+
+  private static int countRowFiles() {
+    String[] names = new File(System.getProperty("java.io.tmpdir")).list(new FilenameFilter() {
+      public boolean accept(File dir, String name) {
+        return name.startsWith("orientdb-rows");
+      }
+    });
+    return names.length;
+  }
 }
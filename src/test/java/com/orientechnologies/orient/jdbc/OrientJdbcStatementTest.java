@@ -1,15 +1,27 @@
 package com.orientechnologies.orient.jdbc;
 
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionAbstract;
 import org.junit.Test;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class OrientJdbcStatementTest extends OrientJdbcBaseTest {
 
@@ -43,4 +55,225 @@ public class OrientJdbcStatementTest extends OrientJdbcBaseTest {
 
   }
 
+  @Test
+  public void shouldReadResultSetInPages() throws SQLException {
+    Statement stmt = conn.createStatement();
+    stmt.setFetchSize(3);
+    assertThat(stmt.getFetchSize(), equalTo(3));
+
+    ResultSet rs = stmt.executeQuery("SELECT FROM Item");
+    assertThat(rs.getFetchSize(), equalTo(3));
+    Set<Integer> keys = new HashSet<Integer>();
+    while (rs.next())
+      keys.add(rs.getInt("intKey"));
+    assertThat(keys.size(), equalTo(20));
+
+    rs = stmt.executeQuery("SELECT * FROM Item WHERE intKey > 5 AND intKey <= 15");
+    int count = 0;
+    while (rs.next())
+      count++;
+    assertThat(count, equalTo(10));
+  }
+
+  @Test(expected = SQLException.class)
+  public void shouldRejectNegativeFetchSize() throws SQLException {
+    conn.createStatement().setFetchSize(-1);
+  }
+
+  @Test
+  public void shouldLimitResultSetToMaxRows() throws SQLException {
+    Statement stmt = conn.createStatement();
+    stmt.setMaxRows(5);
+    assertThat(stmt.getMaxRows(), equalTo(5));
+
+    assertThat(count(stmt.executeQuery("SELECT FROM Item")), equalTo(5));
+    assertThat(count(stmt.executeQuery("SELECT FROM Item LIMIT 10")), equalTo(5));
+    assertThat(count(stmt.executeQuery("SELECT FROM Item LIMIT 3")), equalTo(3));
+    assertThat(count(stmt.executeQuery("SELECT FROM Item WHERE text <> 'limit 1' LIMIT 20")), equalTo(5));
+
+    stmt.setFetchSize(2);
+    assertThat(count(stmt.executeQuery("SELECT FROM Item")), equalTo(5));
+  }
+
+  @Test
+  public void shouldNotLimitUpdatesToMaxRows() throws SQLException {
+    Statement stmt = conn.createStatement();
+    stmt.setMaxRows(5);
+    assertThat(stmt.executeUpdate("UPDATE Item SET text = 'updated'"), equalTo(20));
+  }
+
+  @Test(expected = SQLTimeoutException.class)
+  public void shouldFailWhenQueryTimeoutExpires() throws Exception {
+    Connection streamingConn = openStreamingConnection("EXCEPTION");
+    try {
+      Statement stmt = streamingConn.createStatement();
+      stmt.setQueryTimeout(1);
+      assertThat(stmt.getQueryTimeout(), equalTo(1));
+
+      ResultSet rs = stmt.executeQuery("SELECT FROM Article");
+      rs.next();
+      // THE QUERY IS SUSPENDED WHILE THE BUFFER IS FULL
+      Thread.sleep(1500);
+      count(rs);
+    } finally {
+      streamingConn.close();
+    }
+  }
+
+  @Test
+  public void shouldReturnPartialResultWhenQueryTimeoutExpires() throws Exception {
+    Connection streamingConn = openStreamingConnection("RETURN");
+    try {
+      Statement stmt = streamingConn.createStatement();
+      stmt.setQueryTimeout(1);
+
+      ResultSet rs = stmt.executeQuery("SELECT FROM Article");
+      rs.next();
+      Thread.sleep(1500);
+      assertThat(count(rs), lessThan(2500));
+    } finally {
+      streamingConn.close();
+    }
+  }
+
+  @Test
+  public void shouldCancelRunningQuery() throws Exception {
+    Connection streamingConn = openStreamingConnection("EXCEPTION");
+    try {
+      Statement stmt = streamingConn.createStatement();
+      ResultSet rs = stmt.executeQuery("SELECT FROM Article");
+      rs.next();
+      stmt.cancel();
+      try {
+        count(rs);
+        fail("The cancelled query should fail");
+      } catch (SQLException e) {
+        assertThat(e.getSQLState(), equalTo("HY008"));
+      }
+    } finally {
+      streamingConn.close();
+    }
+  }
+
+  @Test(expected = SQLTimeoutException.class)
+  public void shouldFailWhenMaterializedQueryTimeoutExpires() throws Exception {
+    registerSleepFunction();
+    try {
+      Statement stmt = conn.createStatement();
+      stmt.setQueryTimeout(1);
+      // EVERY ARTICLE TAKES 10 MS: THE WHOLE QUERY WOULD RUN FOR SECONDS
+      stmt.executeQuery("SELECT sleep(10) FROM Article");
+    } finally {
+      OSQLEngine.getInstance().unregisterFunction("sleep");
+    }
+  }
+
+  @Test
+  public void shouldCancelMaterializedQuery() throws Exception {
+    registerSleepFunction();
+    final Statement stmt = conn.createStatement();
+    final AtomicBoolean running = new AtomicBoolean(true);
+    Thread canceller = new Thread() {
+      @Override
+      public void run() {
+        // THE STATEMENT CAN BE CANCELLED ONLY ONCE ITS EXECUTION STARTED
+        while (running.get()) {
+          try {
+            stmt.cancel();
+            Thread.sleep(50);
+          } catch (Exception e) {
+            return;
+          }
+        }
+      }
+    };
+    canceller.start();
+    try {
+      stmt.executeQuery("SELECT sleep(10) FROM Article");
+      fail("The cancelled query should fail");
+    } catch (SQLException e) {
+      assertThat(e.getSQLState(), equalTo("HY008"));
+    } finally {
+      running.set(false);
+      canceller.join();
+      OSQLEngine.getInstance().unregisterFunction("sleep");
+    }
+  }
+
+  @Test(expected = SQLTimeoutException.class)
+  public void shouldApplyQueryTimeoutToAllThePages() throws Exception {
+    Statement stmt = conn.createStatement();
+    stmt.setFetchSize(100);
+    stmt.setQueryTimeout(1);
+
+    ResultSet rs = stmt.executeQuery("SELECT FROM Article");
+    rs.next();
+    // EVERY PAGE IS READ QUICKLY, BUT THE QUERY AS A WHOLE LASTS LONGER THAN THE TIMEOUT
+    Thread.sleep(1500);
+    count(rs);
+  }
+
+  @Test
+  public void shouldCancelPagedQuery() throws Exception {
+    Statement stmt = conn.createStatement();
+    stmt.setFetchSize(100);
+
+    ResultSet rs = stmt.executeQuery("SELECT FROM Article");
+    rs.next();
+    stmt.cancel();
+    try {
+      count(rs);
+      fail("The cancelled query should fail");
+    } catch (SQLException e) {
+      assertThat(e.getSQLState(), equalTo("HY008"));
+    }
+  }
+
+  @Test
+  public void shouldExecuteBatch() throws SQLException {
+    Statement stmt = conn.createStatement();
+    stmt.addBatch("CREATE CLASS Batched");
+    stmt.addBatch("INSERT INTO Batched (id, text) VALUES (1, 'first; line')");
+    stmt.addBatch("INSERT INTO Batched (id) VALUES (2)");
+    stmt.executeBatch();
+
+    stmt.addBatch("INSERT INTO Batched\n(id) VALUES (3)");
+    stmt.addBatch("UPDATE Batched SET text = 'updated' WHERE id > 1");
+    int[] counts = stmt.executeBatch();
+    assertThat(counts.length, equalTo(2));
+    assertThat(counts[0], equalTo(1));
+    assertThat(counts[1], equalTo(2));
+
+    assertThat(count(stmt.executeQuery("SELECT FROM Batched")), equalTo(3));
+  }
+
+  private Connection openStreamingConnection(String timeoutStrategy) throws SQLException {
+    return openConnection("db.streaming", "true", "db.streaming.bufferSize", "1", "db.query.timeoutStrategy", timeoutStrategy);
+  }
+
+  private static void registerSleepFunction() {
+    OSQLEngine.getInstance().registerFunction("sleep", new OSQLFunctionAbstract("sleep", 1, 1) {
+      public Object execute(Object iThis, OIdentifiable iCurrentRecord, Object iCurrentResult, Object[] iParams,
+          OCommandContext iContext) {
+        try {
+          Thread.sleep(((Number) iParams[0]).longValue());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return iParams[0];
+      }
+
+      public String getSyntax() {
+        return "sleep(<ms>)";
+      }
+    });
+  }
+
+  private int count(ResultSet rs) throws SQLException {
+    int count = 0;
+    while (rs.next())
+      count++;
+    return count;
+  }
+
 }